@@ -0,0 +1,18 @@
+package lexicalAnalyzer;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+// Runs the suite with the GC profiler on, so every result also carries the
+// allocation rate (gc.alloc.rate and gc.alloc.rate.norm). Arguments are passed
+// through as usual JMH options, e.g. "LexerBenchmark.mappedFile -p size=1GB".
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
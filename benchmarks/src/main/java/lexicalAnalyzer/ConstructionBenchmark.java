@@ -0,0 +1,25 @@
+package lexicalAnalyzer;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Cost of building the lexer from the RE patterns, the work main skips when
+// lexer.tables is present.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+    @Benchmark
+    public DFA convertNFAtoDFA() {
+        return NFA.mergeNFAs(LexerBenchmark.buildNFAs()).convertNFAtoDFA();
+    }
+
+    // What main --lazy pays before lexing: the NFA and an empty state cache.
+    @Benchmark
+    public LazyDFA lazyDFA() {
+        return NFA.mergeNFAs(LexerBenchmark.buildNFAs()).lazyDFA(LazyDFA.DEFAULT_CAPACITY);
+    }
+}
@@ -0,0 +1,232 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Deterministic generator of source text in the language of RE: declarations,
+// assignments, if/else and for blocks, line and block comments, and the odd
+// unrecognized lexeme. The same size, profile and seed always give the same bytes.
+// Only LOCALIZED_COMMENTS writes anything past ASCII, as UTF-8.
+class CorpusGenerator {
+    enum Profile {
+        // Relative weights of: keyword-led statements, identifier-heavy
+        // expressions, number literals, comments, unrecognized lexemes.
+        BALANCED(4, 4, 3, 2, 1),
+        KEYWORD_HEAVY(10, 2, 1, 1, 0),
+        IDENTIFIER_HEAVY(2, 10, 1, 1, 0),
+        NUMBER_HEAVY(2, 2, 10, 1, 0),
+        COMMENT_HEAVY(2, 2, 1, 10, 0),
+        LOCALIZED_COMMENTS(2, 2, 1, 10, 0, true);
+
+        final int keywords;
+        final int identifiers;
+        final int numbers;
+        final int comments;
+        final int errors;
+        final boolean localized;
+
+        Profile(int keywords, int identifiers, int numbers, int comments, int errors) {
+            this(keywords, identifiers, numbers, comments, errors, false);
+        }
+
+        Profile(int keywords, int identifiers, int numbers, int comments, int errors, boolean localized) {
+            this.keywords = keywords;
+            this.identifiers = identifiers;
+            this.numbers = numbers;
+            this.comments = comments;
+            this.errors = errors;
+            this.localized = localized;
+        }
+    }
+
+    private static final String[] TYPES = {"int", "float", "bool", "char"};
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "%"};
+    private static final String[] WORDS = {"todo", "fix", "this", "value", "loop", "count", "check", "later"};
+    private static final String[] LOCALIZED_WORDS = {"à corriger", "später", "größe", "проверить", "значение", "ループ", "確認", "값", "✓"};
+
+    private final Profile profile;
+    private final Random random;
+    private final Appendable out;
+    private long written;
+    private int depth;
+
+    private CorpusGenerator(Profile profile, long seed, Appendable out) {
+        this.profile = profile;
+        this.random = new Random(seed);
+        this.out = out;
+    }
+
+    public static String generate(long size, Profile profile, long seed) {
+        StringBuilder sb = new StringBuilder((int) Math.min(size + 256, Integer.MAX_VALUE - 8));
+        try {
+            new CorpusGenerator(profile, seed, sb).run(size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    public static void write(Path file, long size, Profile profile, long seed) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new CorpusGenerator(profile, seed, writer).run(size);
+        }
+    }
+
+    // Accepts sizes such as 512, 1KB, 64KB, 16MB or 1GB.
+    public static long parseSize(String size) {
+        String upper = size.trim().toUpperCase();
+        long unit = 1;
+        if (upper.endsWith("KB")) {
+            unit = 1L << 10;
+        } else if (upper.endsWith("MB")) {
+            unit = 1L << 20;
+        } else if (upper.endsWith("GB")) {
+            unit = 1L << 30;
+        }
+        String digits = unit == 1 ? upper : upper.substring(0, upper.length() - 2);
+        return Long.parseLong(digits.trim()) * unit;
+    }
+
+    // Writes whole statements until at least size bytes are out, then closes any open blocks.
+    private void run(long size) throws IOException {
+        while (written < size) {
+            statement();
+        }
+        while (depth > 0) {
+            depth--;
+            line("}");
+        }
+    }
+
+    private void statement() throws IOException {
+        int total = profile.keywords + profile.identifiers + profile.numbers + profile.comments + profile.errors;
+        int pick = random.nextInt(total);
+        if ((pick -= profile.keywords) < 0) {
+            keywordStatement();
+        } else if ((pick -= profile.identifiers) < 0) {
+            line(identifier() + " = " + expression(1 + random.nextInt(6), false) + ";");
+        } else if ((pick -= profile.numbers) < 0) {
+            line(identifier() + " = " + expression(1 + random.nextInt(6), true) + ";");
+        } else if ((pick -= profile.comments) < 0) {
+            comment();
+        } else {
+            line(TYPES[random.nextInt(TYPES.length)] + " " + identifier() + random.nextInt(100) + ";");
+        }
+    }
+
+    private void keywordStatement() throws IOException {
+        switch (random.nextInt(depth < 6 ? 5 : 2)) {
+            case 0:
+                line(TYPES[random.nextInt(TYPES.length)] + " " + identifier() + ", " + identifier() + " = " + number() + ";");
+                break;
+            case 1:
+                if (depth > 0) {
+                    depth--;
+                    line("}");
+                    if (random.nextBoolean()) {
+                        line("return " + expression(2, false) + ";");
+                    }
+                } else {
+                    line("void " + identifier() + "() {");
+                    depth++;
+                }
+                break;
+            case 2:
+                line("if (" + expression(2, false) + ") {");
+                depth++;
+                break;
+            case 3:
+                line("for (" + identifier() + " = 0; " + identifier() + "; " + identifier() + " = " + identifier() + " + 1) {");
+                depth++;
+                break;
+            default:
+                if (depth > 0) {
+                    depth--;
+                    line("} else {");
+                    depth++;
+                } else {
+                    line("int main() {");
+                    depth++;
+                }
+        }
+    }
+
+    private void comment() throws IOException {
+        if (random.nextInt(3) == 0) {
+            line("/* " + words(4) + "");
+            line("   " + words(6) + " */");
+        } else {
+            line("// " + words(5));
+        }
+    }
+
+    private String expression(int operands, boolean numeric) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                sb.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+            }
+            sb.append(numeric || random.nextInt(4) == 0 ? number() : identifier());
+        }
+        return sb.toString();
+    }
+
+    private String identifier() {
+        int length = 1 + random.nextInt(8);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private String number() {
+        String whole = Integer.toString(random.nextInt(100000));
+        if (random.nextBoolean()) {
+            return whole;
+        }
+        return whole + "." + (1 + random.nextInt(99999));
+    }
+
+    private String words(int count) {
+        String[] words = profile.localized ? LOCALIZED_WORDS : WORDS;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(words[random.nextInt(words.length)]);
+        }
+        return sb.toString();
+    }
+
+    private void line(String text) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            out.append("    ");
+        }
+        out.append(text).append('\n');
+        written += 4L * depth + utf8Length(text) + 1;
+    }
+
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            length += c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isSurrogate(c) ? 2 : 3;
+        }
+        return length;
+    }
+
+    // Usage: CorpusGenerator <file> <size> [profile] [seed]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CorpusGenerator <file> <size, e.g. 64MB> [profile] [seed]");
+            return;
+        }
+        Profile profile = args.length > 2 ? Profile.valueOf(args[2]) : Profile.BALANCED;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        write(Paths.get(args[0]), parseSize(args[1]), profile, seed);
+    }
+}
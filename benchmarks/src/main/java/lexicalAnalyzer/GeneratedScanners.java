@@ -0,0 +1,54 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javax.tools.*;
+
+// Compiles ScannerGenerator output for a DFA while running, so benchmarks and
+// tests always measure the scanner of the current patterns. The class is
+// defined in this package through a lookup, since Automaton and TokenType are
+// package-private and a class from another loader could not implement them.
+final class GeneratedScanners {
+    private static final AtomicInteger CLASSES = new AtomicInteger();
+
+    private GeneratedScanners() {
+    }
+
+    // A new generated scanner for dfa; each call defines a class of its own.
+    static Automaton compile(DFA dfa) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler: run on a JDK, not a JRE");
+        }
+        String className = "GeneratedScanner" + CLASSES.incrementAndGet();
+        Path directory = Files.createTempDirectory("generated-scanner-");
+        try {
+            Path source = ScannerGenerator.write(dfa, className, directory);
+            // The surefire and JMH class paths may not list the lexer classes
+            // directly, so the location they were loaded from is added.
+            String classPath = System.getProperty("java.class.path") + File.pathSeparator
+                    + Paths.get(Automaton.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            StringWriter errors = new StringWriter();
+            boolean compiled = compiler.getTask(errors, null, null,
+                    List.of("-d", directory.toString(), "-classpath", classPath, "-proc:none"), null,
+                    compiler.getStandardFileManager(null, null, null).getJavaFileObjects(source.toFile())).call();
+            if (!compiled) {
+                throw new IllegalStateException("Generated scanner does not compile:\n" + errors);
+            }
+            byte[] bytes = Files.readAllBytes(directory.resolve("lexicalAnalyzer").resolve(className + ".class"));
+            Class<?> scanner = MethodHandles.lookup().defineClass(bytes);
+            return (Automaton) scanner.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | URISyntaxException e) {
+            throw new IllegalStateException("Cannot load generated scanner " + className, e);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Throughput of the lexer entry points over generated corpora. Every benchmark
+// adds what it consumed to Counters, so JMH reports tokens/s and bytes/s next
+// to ops/s; run with -prof gc (BenchmarkMain does) for the allocation rate.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LexerBenchmark {
+    // Upwards of a few hundred MB, use -p size=1GB -jvmArgsAppend -Xmx8g and
+    // -p profile=... to pick one corpus; the String benchmarks hold it in memory.
+    @Param({"1KB", "1MB", "16MB"})
+    public String size;
+
+    @Param({"BALANCED", "KEYWORD_HEAVY", "IDENTIFIER_HEAVY", "NUMBER_HEAVY", "COMMENT_HEAVY", "LOCALIZED_COMMENTS"})
+    public String profile;
+
+    private NFA combined;
+    private NFA identifiers;
+    private DFA dfa;
+    private Utf8DFA utf8;
+    private LazyDFA lazyDFA;
+    private Automaton generated;
+    private byte[] bytes;
+    private String code;
+    private Path file;
+    private int tokenCount;
+    private String[] lexemes;
+    private long lexemeBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long tokens;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        combined = NFA.mergeNFAs(buildNFAs());
+        dfa = combined.convertNFAtoDFA();
+        utf8 = new Utf8DFA(dfa);
+        lazyDFA = combined.lazyDFA(LazyDFA.DEFAULT_CAPACITY);
+        generated = GeneratedScanners.compile(dfa);
+        identifiers = new NFA();
+        identifiers.buildNFAFromRegex("Identifier", RE.IDENTIFIER_REGEX);
+
+        CorpusGenerator.Profile corpusProfile = CorpusGenerator.Profile.valueOf(profile);
+        file = Files.createTempFile("lexer-corpus-", ".txt");
+        CorpusGenerator.write(file, CorpusGenerator.parseSize(size), corpusProfile, 42);
+        bytes = Files.readAllBytes(file);
+        code = new String(bytes, StandardCharsets.UTF_8);
+
+        List<String> sample = new ArrayList<>();
+        Lexer lexer = new Lexer(dfa, code);
+        while (lexer.next()) {
+            tokenCount++;
+            if (sample.size() < 4096) {
+                String text = lexer.text();
+                sample.add(text);
+                lexemeBytes += text.length();
+            }
+        }
+        lexemes = sample.toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    static List<NFA> buildNFAs() {
+        Map<String, String> regexMap = new HashMap<>();
+        regexMap.put("Identifier", RE.IDENTIFIER_REGEX);
+        regexMap.put("Number", RE.NUMBER_REGEX);
+        regexMap.put("Keyword", RE.KEYWORD_REGEX);
+        regexMap.put("Operator", RE.OPERATOR_REGEX);
+        regexMap.put("Punctuator", RE.PUNCTUATOR_REGEX);
+        regexMap.put("Comment", RE.COMMENT_REGEX);
+        regexMap.put("Unrecognized", RE.UNRECOGNIZED_REGEX);
+
+        List<NFA> nfas = new ArrayList<>();
+        for (Map.Entry<String, String> entry : regexMap.entrySet()) {
+            NFA nfa = new NFA();
+            nfa.buildNFAFromRegex(entry.getKey(), entry.getValue());
+            nfas.add(nfa);
+        }
+        return nfas;
+    }
+
+    private void count(Counters counters) {
+        counters.tokens += tokenCount;
+        counters.bytes += bytes.length;
+    }
+
+    // One op classifies a sample of up to 4096 lexemes taken from the corpus.
+    @Benchmark
+    public void isAccepted(Counters counters, Blackhole blackhole) {
+        for (String lexeme : lexemes) {
+            blackhole.consume(identifiers.isAccepted(lexeme));
+        }
+        counters.tokens += lexemes.length;
+        counters.bytes += lexemeBytes;
+    }
+
+    @Benchmark
+    public TokenBuffer tokenizeCode(Counters counters) {
+        count(counters);
+        return combined.tokenizeCode(code);
+    }
+
+    @Benchmark
+    public void createSymbolTable(Counters counters) {
+        count(counters);
+        combined.createSymbolTable(code);
+    }
+
+    @Benchmark
+    public void detectLexemeErrors(Counters counters) {
+        count(counters);
+        combined.detectLexemeErrors(code);
+    }
+
+    // Tokens only, with no consumer: the raw speed of the String lexer.
+    @Benchmark
+    public int lexString(Counters counters) throws IOException {
+        count(counters);
+        Lexer lexer = new Lexer(dfa, code);
+        int tokens = 0;
+        while (lexer.next()) {
+            tokens++;
+        }
+        return tokens;
+    }
+
+    // lexString on the lazily built DFA, whose cache stays warm between ops.
+    @Benchmark
+    public int lexLazy(Counters counters) throws IOException {
+        count(counters);
+        Lexer lexer = new Lexer(lazyDFA, code);
+        int tokens = 0;
+        while (lexer.next()) {
+            tokens++;
+        }
+        return tokens;
+    }
+
+    // lexString on the ScannerGenerator output for the same DFA, whose states
+    // are switch cases of char comparisons instead of table lookups.
+    @Benchmark
+    public int lexGenerated(Counters counters) throws IOException {
+        count(counters);
+        Lexer lexer = new Lexer(generated, code);
+        int tokens = 0;
+        while (lexer.next()) {
+            tokens++;
+        }
+        return tokens;
+    }
+
+    // The UTF-8 bytes decoded to a String first, as BatchLexer and LexerServer
+    // used to before lexing them; compare with lexBytes.
+    @Benchmark
+    public int decodeAndLex(Counters counters) throws IOException {
+        count(counters);
+        Lexer lexer = new Lexer(dfa, new String(bytes, StandardCharsets.UTF_8));
+        int tokens = 0;
+        while (lexer.next()) {
+            tokens++;
+        }
+        return tokens;
+    }
+
+    // The same bytes lexed as they are with the Utf8DFA.
+    @Benchmark
+    public int lexBytes(Counters counters) throws IOException {
+        count(counters);
+        MappedLexer lexer = new MappedLexer(utf8, ByteBuffer.wrap(bytes));
+        int tokens = 0;
+        while (lexer.next()) {
+            tokens++;
+        }
+        return tokens;
+    }
+
+    // What main runs: one mapped pass over the file feeding all three reports,
+    // formatted as text into a null stream.
+    @Benchmark
+    public void mappedFile(Counters counters) throws IOException {
+        count(counters);
+        TokenSink sink = new TextSink(OutputStream.nullOutputStream());
+        try (MappedLexer lexer = new MappedLexer(utf8, file)) {
+            lexer.drainTo(new LexemeErrorCollector(sink), new TokenListing(sink), new SymbolTableBuilder(sink));
+        }
+        sink.flush();
+    }
+
+    // mappedFile lexed on every core by a ParallelLexer, then fed to the reports in order.
+    @Benchmark
+    public void parallelFile(Counters counters) throws IOException {
+        count(counters);
+        TokenSink sink = new TextSink(OutputStream.nullOutputStream());
+        new ParallelLexer(utf8, ForkJoinPool.commonPool())
+                .drainTo(file, new LexemeErrorCollector(sink), new TokenListing(sink), new SymbolTableBuilder(sink));
+        sink.flush();
+    }
+}
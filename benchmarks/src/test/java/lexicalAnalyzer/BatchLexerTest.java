@@ -0,0 +1,45 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchLexerTest {
+    private static final CompiledLexer LEXER = CompiledLexer.compile(LexerTest.patterns());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void aFailedFileLeavesTheOthersReported() throws IOException, InterruptedException {
+        Path first = Files.writeString(dir.resolve("a.txt"), "int a = 1;");
+        Path missing = dir.resolve("missing.txt");
+        Path last = Files.writeString(dir.resolve("b.txt"), "int b = 2; int b = 3;");
+
+        List<BatchLexer.FileResult> results;
+        try (BatchLexer batch = new BatchLexer(LEXER, 2)) {
+            results = batch.lex(List.of(first, missing, last));
+        }
+        assertEquals(List.of(first, missing, last), results.stream().map(result -> result.file).toList());
+        assertNull(results.get(0).failure);
+        assertEquals(1, results.get(0).symbols.size());
+        assertInstanceOf(NoSuchFileException.class, results.get(1).failure);
+        assertNull(results.get(1).symbols);
+        assertEquals(1, results.get(2).symbols.duplicateCount());
+
+        for (String format : List.of("text", "jsonl", "binary")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            TokenSink sink = TokenSink.forFormat(format, out);
+            sink.beginFiles();
+            results.forEach(sink::file);
+            sink.endFiles(results.size());
+            sink.flush();
+            assertTrue(out.toString(StandardCharsets.ISO_8859_1).contains(results.get(1).failureMessage()), format);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DFATest {
+    private static final int FINGERPRINT = 42;
+    // Magic, version, fingerprint, state count and class count.
+    private static final int HEADER_SIZE = 20;
+
+    @TempDir
+    Path dir;
+
+    private Path saved() throws IOException {
+        Path file = dir.resolve("lexer.tables");
+        CompiledLexer.compile(LexerTest.patterns()).save(file, FINGERPRINT);
+        return file;
+    }
+
+    @Test
+    void loadsWhatWasSaved() throws IOException {
+        DFA dfa = DFA.load(saved(), FINGERPRINT);
+        assertNotNull(dfa);
+        assertEquals(CompiledLexer.compile(LexerTest.patterns()).dfa().stateCount(), dfa.stateCount());
+    }
+
+    @Test
+    void rejectsATransitionPastTheLastState() throws IOException {
+        Path file = saved();
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 4, Integer.MAX_VALUE);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> DFA.load(file, FINGERPRINT));
+    }
+
+    @Test
+    void rejectsAnUnknownTokenType() throws IOException {
+        Path file = saved();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[HEADER_SIZE + DFA.ALPHABET_SIZE] = (byte) TokenType.values().length;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> DFA.load(file, FINGERPRINT));
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws IOException {
+        Path file = saved();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> DFA.load(file, FINGERPRINT));
+    }
+
+    @Test
+    void fingerprintsDifferForOtherPatterns() {
+        Map<String, String> patterns = LexerTest.patterns();
+        Map<String, String> reordered = new LinkedHashMap<>();
+        new ArrayDeque<>(patterns.keySet()).descendingIterator()
+                .forEachRemaining(name -> reordered.put(name, patterns.get(name)));
+        assertEquals(CompiledLexer.fingerprint(patterns), CompiledLexer.fingerprint(reordered));
+
+        Map<String, String> changed = new HashMap<>(patterns);
+        changed.put("Number", "[0-9]");
+        assertNotEquals(CompiledLexer.fingerprint(patterns), CompiledLexer.fingerprint(changed));
+    }
+}
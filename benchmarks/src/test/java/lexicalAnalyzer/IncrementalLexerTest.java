@@ -0,0 +1,52 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class IncrementalLexerTest {
+    private static final CompiledLexer LEXER = CompiledLexer.compile(LexerTest.patterns());
+    private static final String[] PIECES = {
+        "x", "y1", " ", "\n", "= ", "42", "if ", "(", ")", ";", "/", "*", "//", "/*", "*/", "é", "#",
+    };
+
+    // "Type start line text" for every token.
+    private static List<String> tokens(IncrementalLexer.Document document) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < document.tokens.size(); i++) {
+            tokens.add(document.tokens.type(i) + " " + document.tokens.start(i) + " "
+                    + document.tokens.line(i) + " " + document.text(i));
+        }
+        return tokens;
+    }
+
+    @Test
+    void editsMatchLexingTheWholeText() {
+        IncrementalLexer lexer = new IncrementalLexer(LEXER.dfa());
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder("int x = 1;\n/* a\n comment */ y = x // tail\n");
+        IncrementalLexer.Document document = lexer.lex(text.toString());
+        for (int edit = 0; edit < 2000; edit++) {
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(Math.min(4, text.length() - offset) + 1);
+            String inserted = random.nextInt(3) == 0 ? "" : PIECES[random.nextInt(PIECES.length)];
+            List<String> before = tokens(document);
+            text.replace(offset, offset + removed, inserted);
+            lexer.edit(document, offset, removed, inserted);
+
+            List<String> expected = tokens(lexer.lex(text.toString()));
+            assertEquals(text.toString(), document.text());
+            assertEquals(expected, tokens(document), "after edit " + edit);
+            assertEquals(before.subList(0, document.changeStart), expected.subList(0, document.changeStart));
+            assertEquals(before.size() - document.oldChangeEnd, expected.size() - document.changeEnd);
+        }
+    }
+
+    @Test
+    void rejectsAnEditPastTheEnd() {
+        IncrementalLexer lexer = new IncrementalLexer(LEXER.dfa());
+        IncrementalLexer.Document document = lexer.lex("x = 1");
+        assertThrows(IllegalArgumentException.class, () -> lexer.edit(document, 4, 2, ""));
+    }
+}
@@ -0,0 +1,85 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class LazyDFATest {
+    private static final CompiledLexer LEXER = CompiledLexer.compile(LexerTest.patterns());
+    private static final String CODE = corpus();
+
+    // A long run of plain statements, which needs few states, then every kind
+    // of token, comments over several lines, unrecognized runs and chars past ASCII.
+    private static String corpus() {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            code.append("int v").append(i).append(" = v").append(i / 2).append(" * ").append(i).append(";\n");
+        }
+        return code.append("int main() { if (x1 >= 42) { return x1 + 3.5e2; } }\n")
+                .append("/* block\n * comment */ a1 = b2 ** c; // line comment\n")
+                .append("while (é != 0) { ünï = 1; } @ # $ a/b1 7/* x */8\n").toString();
+    }
+
+    private static NFA nfa() {
+        return CompiledLexer.combine(LexerTest.patterns(), TokenSink.QUIET);
+    }
+
+    private static List<String> tokens(Automaton automaton) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        Lexer lexer = new Lexer(automaton, CODE);
+        while (lexer.next()) {
+            tokens.add(lexer.type() + " " + lexer.start() + " " + lexer.end());
+        }
+        return tokens;
+    }
+
+    @Test
+    void lexesLikeTheDFAWhateverItsCapacity() throws IOException {
+        List<String> expected = tokens(LEXER.dfa());
+        for (int capacity : new int[] {1, 2, 5, 20, LazyDFA.DEFAULT_CAPACITY}) {
+            LazyDFA lazy = nfa().lazyDFA(capacity);
+            assertEquals(expected, tokens(lazy), "capacity " + capacity);
+            assertTrue(lazy.cachedStates() <= capacity, "capacity " + capacity);
+        }
+    }
+
+    @Test
+    void aCacheLargeEnoughNeverFlushes() throws IOException {
+        LazyDFA lazy = nfa().lazyDFA(LazyDFA.DEFAULT_CAPACITY);
+        tokens(lazy);
+        assertEquals(0, lazy.flushes());
+        assertFalse(lazy.simulating());
+    }
+
+    // The plain statements lex many chars per state, so running out of room in
+    // the tail is worth one flush and a refill rather than giving the cache up.
+    @Test
+    void aCacheOneStateShortIsFlushedOnce() throws IOException {
+        LazyDFA full = nfa().lazyDFA(LazyDFA.DEFAULT_CAPACITY);
+        tokens(full);
+        LazyDFA lazy = nfa().lazyDFA(full.cachedStates() - 1);
+        assertEquals(tokens(LEXER.dfa()), tokens(lazy));
+        assertEquals(1, lazy.flushes());
+        assertFalse(lazy.simulating());
+    }
+
+    // A cache that fills before lexing MIN_STEPS_PER_STATE chars per state is
+    // thrashing; from then on the NFA is simulated and nothing is cached.
+    @Test
+    void aTinyCacheIsGivenUpForSimulation() throws IOException {
+        for (int capacity : new int[] {1, 2, 5, 20}) {
+            LazyDFA lazy = nfa().lazyDFA(capacity);
+            tokens(lazy);
+            assertTrue(lazy.simulating(), "capacity " + capacity);
+            assertTrue(lazy.flushes() > 0, "capacity " + capacity);
+            assertEquals(0, lazy.cachedStates(), "capacity " + capacity);
+        }
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> nfa().lazyDFA(0));
+    }
+}
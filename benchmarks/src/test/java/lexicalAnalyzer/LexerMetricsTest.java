@@ -0,0 +1,50 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class LexerMetricsTest {
+    private static final DFA DFA = CompiledLexer.compile(LexerTest.patterns()).dfa();
+    private static final String CODE = "int counter = 12345; // a comment that runs on\n/* and a block */ x";
+
+    // The DFA without its selfLoops, so a lexer steps through every char.
+    private static final Automaton STEPPED = new Automaton() {
+        @Override
+        public int startState() {
+            return DFA.startState();
+        }
+
+        @Override
+        public int next(int state, char c) {
+            return DFA.next(state, c);
+        }
+
+        @Override
+        public TokenType accepting(int state) {
+            return DFA.accepting(state);
+        }
+    };
+
+    private static long[] visits(Automaton dfa) throws IOException {
+        LexerMetrics metrics = new LexerMetrics();
+        Lexer lexer = new Lexer(metrics.meter(dfa), CODE);
+        while (lexer.next()) {
+        }
+        return metrics.stateVisits();
+    }
+
+    @Test
+    void meteringKeepsRunSkipping() {
+        Automaton metered = new LexerMetrics().meter(DFA);
+        for (int state = 0; state < DFA.stateCount(); state++) {
+            assertEquals(DFA.selfLoops(state), metered.selfLoops(state));
+        }
+    }
+
+    @Test
+    void skippedCharsCountAsVisits() throws IOException {
+        assertArrayEquals(visits(STEPPED), visits(DFA));
+    }
+}
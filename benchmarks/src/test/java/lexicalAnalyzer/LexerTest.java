@@ -0,0 +1,137 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class LexerTest {
+    private static final CompiledLexer LEXER = CompiledLexer.compile(patterns());
+
+    static Map<String, String> patterns() {
+        Map<String, String> patterns = new HashMap<>();
+        patterns.put("Identifier", RE.IDENTIFIER_REGEX);
+        patterns.put("Number", RE.NUMBER_REGEX);
+        patterns.put("Keyword", RE.KEYWORD_REGEX);
+        patterns.put("Operator", RE.OPERATOR_REGEX);
+        patterns.put("Punctuator", RE.PUNCTUATOR_REGEX);
+        patterns.put("Comment", RE.COMMENT_REGEX);
+        patterns.put("Unrecognized", RE.UNRECOGNIZED_REGEX);
+        return patterns;
+    }
+
+    // "Type text line" for every token, the same from a String, a Reader with a
+    // tiny buffer and the UTF-8 bytes.
+    private static List<String> tokens(String code) throws IOException {
+        List<String> fromString = drain(LEXER.lexer(code));
+        assertEquals(fromString, drain(new Lexer(LEXER.dfa(), new StringReader(code), 4)), "Reader");
+        assertEquals(fromString, drain(LEXER.open(ByteBuffer.wrap(code.getBytes(StandardCharsets.UTF_8)))), "bytes");
+        return fromString;
+    }
+
+    private static List<String> drain(TokenStream stream) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        while (stream.next()) {
+            tokens.add(stream.type() + " " + stream.text() + " " + stream.line());
+        }
+        return tokens;
+    }
+
+    @Test
+    void lineCommentRightAfterANumber() throws IOException {
+        assertEquals(List.of("Identifier x 1", "Operator = 1", "Number 5 1", "Identifier y 2"),
+                tokens("x = 5// note here\ny"));
+    }
+
+    @Test
+    void blockCommentRightAfterANumber() throws IOException {
+        assertEquals(List.of("Number 3 1", "Punctuator ; 2"), tokens("3/* block\n comment */;"));
+    }
+
+    @Test
+    void commentRightAfterAnUnrecognizedRun() throws IOException {
+        assertEquals(List.of("Unrecognized a1 1", "Unrecognized b2 2", "Identifier c 3"),
+                tokens("a1// one\nb2/* two */\nc"));
+    }
+
+    @Test
+    void slashInsideAnUnrecognizedRunStaysInIt() throws IOException {
+        assertEquals(List.of("Unrecognized a/b1 1", "Identifier a 1", "Operator / 1"), tokens("a/b1 a/"));
+    }
+
+    @Test
+    void commentsLongerThanTheBuffer() throws IOException {
+        String block = "/*" + "x*\n".repeat(5000) + "*/";
+        String line = "// " + "y".repeat(20000);
+        assertEquals(List.of("Identifier a 1", "Identifier b 5001", "Identifier c 5003"),
+                tokens("a " + block + " b\n" + line + "\nc " + line));
+    }
+
+    private static String reports(TokenStream stream, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TokenSink sink = TokenSink.forFormat(format, out);
+        stream.drainTo(new LexemeErrorCollector(sink), new TokenListing(sink), new SymbolTableBuilder(sink));
+        sink.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void reportsFromAReaderLongerThanItsBuffer() throws IOException {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            code.append("int v").append(i).append(" = ").append(i).append(" @; // note\n");
+        }
+        assertTrue(code.length() > 8192 * 4);
+        for (String format : List.of("text", "jsonl")) {
+            assertEquals(reports(LEXER.lexer(code), format),
+                    reports(new Lexer(LEXER.dfa(), new StringReader(code.toString())), format), format);
+        }
+    }
+
+    @Test
+    void tokenBufferLooksLinesUp() {
+        TokenBuffer tokens = LEXER.tokenize("a\n/* x\n */ b\n\n  c");
+        assertEquals(3, tokens.size());
+        assertEquals(List.of(1, 3, 5), List.of(tokens.line(0), tokens.line(1), tokens.line(2)));
+        assertEquals(3, tokens.column(2));
+    }
+
+    @Test
+    void aReaderKeepsOnlyTheLinesItBuffers() throws IOException {
+        int lineCount = 200_000;
+        Reader statements = new Reader() {
+            private final char[] line = "x = 1;\n".toCharArray();
+            private long read;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                long total = (long) lineCount * line.length;
+                if (read == total) {
+                    return -1;
+                }
+                int count = (int) Math.min(length, total - read);
+                for (int i = 0; i < count; i++) {
+                    buffer[offset + i] = line[(int) (read++ % line.length)];
+                }
+                return count;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Lexer lexer = new Lexer(LEXER.dfa(), statements, 64);
+        int tokens = 0;
+        int mostLineStarts = 0;
+        while (lexer.next()) {
+            tokens++;
+            assertEquals(tokens / 4 + (tokens % 4 == 0 ? 0 : 1), lexer.line());
+            mostLineStarts = Math.max(mostLineStarts, lexer.lineStarts());
+        }
+        assertEquals(4 * lineCount, tokens);
+        assertTrue(mostLineStarts <= 64, "held " + mostLineStarts + " line starts");
+    }
+}
@@ -0,0 +1,46 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LineIndexTest {
+    // Lines of every length from empty to a few hundred chars.
+    private static char[] text(Random random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("x".repeat(random.nextInt(i % 7 == 0 ? 300 : 3))).append('\n');
+        }
+        return text.toString().toCharArray();
+    }
+
+    @Test
+    void looksUpLikeCountingNewlines() {
+        Random random = new Random(7);
+        char[] text = text(random);
+        int[] lines = new int[text.length + 1];
+        int[] columns = new int[text.length + 1];
+        lines[0] = 1;
+        columns[0] = 1;
+        for (int i = 0; i < text.length; i++) {
+            lines[i + 1] = text[i] == '\n' ? lines[i] + 1 : lines[i];
+            columns[i + 1] = text[i] == '\n' ? 1 : columns[i] + 1;
+        }
+        LineIndex index = new LineIndex(0, 0, 1);
+        index.scan(text, 0, text.length);
+
+        // Forward steps of every size, as gallops and as short hops, then jumps back.
+        int position = 0;
+        while (position <= text.length) {
+            assertEquals(lines[position], index.line(position), "line at " + position);
+            assertEquals(columns[position], index.column(position), "column at " + position);
+            position += 1 + random.nextInt(random.nextBoolean() ? 4 : 4000);
+        }
+        for (int i = 0; i < 1000; i++) {
+            position = random.nextInt(text.length + 1);
+            assertEquals(lines[position], index.line(position), "line at " + position);
+            assertEquals(columns[position], index.column(position), "column at " + position);
+        }
+    }
+}
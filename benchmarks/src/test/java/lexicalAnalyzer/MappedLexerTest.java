@@ -0,0 +1,25 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedLexerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumingACommentWithoutCommentsIsAnError() throws IOException {
+        CompiledLexer identifiers = CompiledLexer.compile(Map.of("Identifier", RE.IDENTIFIER_REGEX));
+        Path file = Files.writeString(dir.resolve("code.txt"), "abc */ d");
+        try (FileChannel channel = FileChannel.open(file);
+                MappedLexer lexer = new MappedLexer(identifiers.dfa(), channel, 0, channel.size(), true)) {
+            assertThrows(IllegalStateException.class, lexer::next);
+        }
+    }
+}
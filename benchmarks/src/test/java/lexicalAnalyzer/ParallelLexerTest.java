@@ -0,0 +1,77 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelLexerTest {
+    private static final CompiledLexer LEXER = CompiledLexer.compile(LexerTest.patterns());
+    // With a 32-thread pool, small enough that every few lines start a chunk.
+    private static final long CHUNK_SIZE = 64;
+
+    @TempDir
+    Path dir;
+
+    // "Type start end line text" of every token of a sequential run.
+    private static List<String> sequential(Path file) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (MappedLexer lexer = LEXER.open(file)) {
+            while (lexer.next()) {
+                tokens.add(lexer.type() + " " + lexer.start() + " " + lexer.end() + " " + lexer.line() + " " + lexer.text());
+            }
+        }
+        return tokens;
+    }
+
+    private static Path code(Path dir) throws IOException {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            code.append("int x").append(i).append(" = ").append(i).append(";\n");
+            if (i % 7 == 3) {
+                // Open across several chunk boundaries, with "*/" at a line start.
+                code.append("/* comment ").append(i).append('\n');
+                code.append("int hidden = 1; // not a token\n".repeat(6));
+                code.append("*/ y = é;\n");
+            }
+        }
+        code.append("/* left open\nz = 1;\n");
+        return Files.writeString(dir.resolve("code.txt"), code.toString());
+    }
+
+    @Test
+    void tokensAndLinesMatchASequentialRun() throws IOException {
+        Path file = code(dir);
+        ForkJoinPool pool = new ForkJoinPool(32);
+        try {
+            TokenBuffer tokens = new ParallelLexer(LEXER.utf8(), pool, CHUNK_SIZE).lex(file);
+            List<String> sequential = sequential(file);
+            assertEquals(sequential.size(), tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                String expected = sequential.get(i);
+                assertEquals(expected.substring(0, expected.lastIndexOf(' ')),
+                        tokens.type(i) + " " + tokens.start(i) + " " + (tokens.start(i) + tokens.length(i)) + " " + tokens.line(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void drainToFeedsConsumersAsASequentialRun() throws IOException {
+        Path file = code(dir);
+        List<String> drained = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(32);
+        try {
+            new ParallelLexer(LEXER.utf8(), pool, CHUNK_SIZE).drainTo(file, stream ->
+                    drained.add(stream.type() + " " + stream.start() + " " + stream.end() + " " + stream.line() + " " + stream.text()));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(sequential(file), drained);
+    }
+}
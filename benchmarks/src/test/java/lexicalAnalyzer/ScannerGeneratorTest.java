@@ -0,0 +1,47 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class ScannerGeneratorTest {
+    private static final CompiledLexer LEXER = CompiledLexer.compile(LexerTest.patterns());
+
+    private static List<String> tokens(Automaton automaton, String code) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        Lexer lexer = new Lexer(automaton, code);
+        while (lexer.next()) {
+            tokens.add(lexer.type() + " " + lexer.start() + " " + lexer.end());
+        }
+        return tokens;
+    }
+
+    @Test
+    void generatedScannerLexesLikeTheDFA() throws IOException {
+        DFA dfa = LEXER.dfa();
+        Automaton scanner = GeneratedScanners.compile(dfa);
+        String code = "int main() { if (x1 >= 42) { return x1 + 3.5e2; } }\n"
+                + "/* block\n * comment */ a1 = b2 ** c; // line comment\n"
+                + "while (é != 0) { ünï = 1; } @ # $ a/b1 7/* x */8 'q' \\ \u0000 ￿\n";
+        assertEquals(tokens(dfa, code), tokens(scanner, code));
+    }
+
+    // Every state and char, including those no token reaches, moves and
+    // accepts the same.
+    @Test
+    void generatedScannerHasTheDFAsTransitions() throws IOException {
+        DFA dfa = LEXER.dfa();
+        Automaton scanner = GeneratedScanners.compile(dfa);
+        assertEquals(dfa.startState(), scanner.startState());
+        for (int state = 0; state < dfa.stateCount(); state++) {
+            assertEquals(dfa.accepting(state), scanner.accepting(state), "state " + state);
+            for (int c = 0; c <= Character.MAX_VALUE; c++) {
+                if (dfa.next(state, (char) c) != scanner.next(state, (char) c)) {
+                    fail("state " + state + " on " + c);
+                }
+            }
+        }
+    }
+}
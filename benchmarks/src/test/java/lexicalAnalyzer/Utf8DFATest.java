@@ -0,0 +1,64 @@
+package lexicalAnalyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class Utf8DFATest {
+    private static final CompiledLexer LEXER = CompiledLexer.compile(LexerTest.patterns());
+
+    private static byte[] bytes(String ascii, int... tail) {
+        byte[] bytes = Arrays.copyOf(ascii.getBytes(StandardCharsets.US_ASCII), ascii.length() + tail.length);
+        for (int i = 0; i < tail.length; i++) {
+            bytes[ascii.length() + i] = (byte) tail[i];
+        }
+        return bytes;
+    }
+
+    // "Type end" for every token, ends counted in bytes.
+    private static List<String> fromBytes(byte[] input) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        MappedLexer lexer = LEXER.open(ByteBuffer.wrap(input));
+        while (lexer.next()) {
+            tokens.add(lexer.type() + " " + lexer.end());
+        }
+        return tokens;
+    }
+
+    private static List<String> decodedTypes(byte[] input) throws IOException {
+        List<String> types = new ArrayList<>();
+        Lexer lexer = LEXER.lexer(new String(input, StandardCharsets.UTF_8));
+        while (lexer.next()) {
+            types.add(lexer.type().toString());
+        }
+        return types;
+    }
+
+    // A code point cut short by the end of the input is one char, as the
+    // decoder's replacement char is, and the token it ends runs to the end.
+    @Test
+    void truncatedSequenceAtTheEnd() throws IOException {
+        byte[] afterIdentifier = bytes("abc", 0xC3);
+        assertEquals(List.of("Unrecognized 4"), fromBytes(afterIdentifier));
+        assertEquals(List.of("Unrecognized"), decodedTypes(afterIdentifier));
+
+        byte[] alone = bytes("x = ", 0xE2, 0x82);
+        assertEquals(List.of("Identifier 1", "Operator 3", "Unrecognized 6"), fromBytes(alone));
+        assertEquals(List.of("Identifier", "Operator", "Unrecognized"), decodedTypes(alone));
+
+        byte[] inComment = bytes("y // c", 0xF0, 0x9F, 0x98);
+        assertEquals(List.of("Identifier 1"), fromBytes(inComment));
+        assertEquals(List.of("Identifier"), decodedTypes(inComment));
+    }
+
+    @Test
+    void truncatedSequenceBeforeMoreText() throws IOException {
+        byte[] input = bytes("a", 0xE2, 0x82, ' ', 'b');
+        assertEquals(List.of("Unrecognized 3", "Identifier 5"), fromBytes(input));
+        assertEquals(List.of("Unrecognized", "Identifier"), decodedTypes(input));
+    }
+}
@@ -0,0 +1,41 @@
+package lexicalAnalyzer;
+
+// What the lexers need from a scanner automaton: the table-driven DFA and
+// scanners generated from it by ScannerGenerator both provide this.
+interface Automaton {
+    // Flags for selfLoops: the state moves to itself on every char in a-z, in
+    // 0-9, on every char but '\n' (a line comment) or every char but '*' (a
+    // block comment).
+    int LOWERCASE_RUN = 1;
+    int DIGIT_RUN = 2;
+    int ALL_BUT_NEWLINE_RUN = 4;
+    int ALL_BUT_STAR_RUN = 8;
+
+    int startState();
+
+    // Returns the next state, or -1 when there is no move on c.
+    int next(int state, char c);
+
+    // Token type accepted in state, or null.
+    TokenType accepting(int state);
+
+    // Which runs of chars leave state unchanged, as *_RUN flags, so a lexer can
+    // skip a whole run without stepping through it. 0 means step char by char.
+    default int selfLoops(int state) {
+        return 0;
+    }
+
+    // Called when a lexer skipped count chars on which state stays put, in
+    // place of that many calls to next(). Only wrappers that watch the moves
+    // need it.
+    default void skipped(int state, int count) {
+    }
+
+    // Whether a state whose selfLoops are loops stays put on c.
+    static boolean staysOn(int loops, char c) {
+        return (loops & LOWERCASE_RUN) != 0 && c >= 'a' && c <= 'z'
+                || (loops & DIGIT_RUN) != 0 && c >= '0' && c <= '9'
+                || (loops & ALL_BUT_NEWLINE_RUN) != 0 && c != '\n'
+                || (loops & ALL_BUT_STAR_RUN) != 0 && c != '*';
+    }
+}
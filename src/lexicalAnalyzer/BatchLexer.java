@@ -0,0 +1,149 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Lexes many files at once with one shared CompiledLexer. Reading a file is
+// done on an I/O thread (a virtual thread where the runtime has them), lexing
+// it on a fixed pool of CPU threads. At most a few files per CPU thread are
+// read ahead, so only their bytes are held at once; what stays behind for
+// every file is its FileResult, with the file's metrics and symbol table.
+// A file that cannot be read or lexed fails on its own, in its FileResult.
+class BatchLexer implements AutoCloseable {
+    private static final int FILES_PER_CPU_THREAD = 4;
+
+    private final CompiledLexer lexer;
+    private final ExecutorService io;
+    private final ExecutorService cpu;
+    private final Semaphore inFlight;
+
+    public BatchLexer(CompiledLexer lexer) {
+        this(lexer, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchLexer(CompiledLexer lexer, int cpuThreads) {
+        this.lexer = lexer;
+        this.inFlight = new Semaphore(cpuThreads * FILES_PER_CPU_THREAD);
+        this.cpu = Executors.newFixedThreadPool(cpuThreads, daemonThreads("lexer-cpu-"));
+        this.io = ioExecutor(cpuThreads * FILES_PER_CPU_THREAD);
+    }
+
+    // What lexing one file found. failure is set, and symbols null, when the
+    // file could not be read or lexing it threw.
+    static final class FileResult {
+        final Path file;
+        final LexerMetrics metrics = new LexerMetrics();
+        SymbolTable symbols;
+        Exception failure;
+
+        FileResult(Path file) {
+            this.file = file;
+        }
+
+        // What the sinks report for a failure, which may have no message of its own.
+        String failureMessage() {
+            String message = failure.getMessage();
+            return message != null ? message : failure.toString();
+        }
+    }
+
+    // Results in the order of files.
+    public List<FileResult> lex(List<Path> files) throws InterruptedException {
+        List<Future<FileResult>> futures = new ArrayList<>(files.size());
+        for (Path file : files) {
+            futures.add(io.submit(() -> read(file)));
+        }
+
+        List<FileResult> results = new ArrayList<>(files.size());
+        for (Future<FileResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                // A file's own failures are in its result; read() only throws when interrupted.
+                if (e.getCause() instanceof InterruptedException) {
+                    throw (InterruptedException) e.getCause();
+                }
+                throw new IllegalStateException("Lexing failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    // Runs on an I/O thread; blocking it while the CPU pool lexes is cheap.
+    private FileResult read(Path file) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            FileResult result = new FileResult(file);
+            LexerEvents.Lex event = new LexerEvents.Lex();
+            event.begin();
+            byte[] bytes;
+            long started = System.nanoTime();
+            try {
+                bytes = Files.readAllBytes(file);
+            } catch (IOException | RuntimeException e) {
+                result.failure = e;
+                return result;
+            }
+            result.metrics.record(LexerMetrics.Phase.READ, System.nanoTime() - started);
+            result.metrics.addBytes(bytes.length);
+            try {
+                cpu.submit(() -> analyze(result, bytes)).get();
+            } catch (ExecutionException e) {
+                // An Error is wrapped rather than lost, so the other files still report.
+                result.symbols = null;
+                Throwable cause = e.getCause();
+                result.failure = cause instanceof Exception ? (Exception) cause : e;
+                return result;
+            }
+            if (event.shouldCommit()) {
+                event.set(file.toString(), result.metrics);
+                event.commit();
+            }
+            return result;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private Void analyze(FileResult result, byte[] bytes) throws IOException {
+        long started = System.nanoTime();
+        SymbolTableBuilder symbols = new SymbolTableBuilder();
+        // Lexed as UTF-8 bytes, never decoded to chars.
+        lexer.open(ByteBuffer.wrap(bytes)).drainTo(result.metrics, symbols);
+        result.symbols = symbols.table();
+        result.metrics.record(LexerMetrics.Phase.SCAN, System.nanoTime() - started);
+        return null;
+    }
+
+    // Java 21 and later have virtual threads; on older runtimes the I/O threads
+    // are a fixed pool as large as the number of files allowed in flight.
+    private static ExecutorService ioExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads, daemonThreads("lexer-io-"));
+        }
+    }
+
+    static ThreadFactory daemonThreads(String prefix) {
+        return new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, prefix + count++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        io.shutdown();
+        cpu.shutdown();
+    }
+}
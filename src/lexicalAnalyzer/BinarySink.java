@@ -0,0 +1,229 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Compact binary records for tools that read the reports back. The stream
+// starts with MAGIC and FORMAT_VERSION as big-endian ints; every record is a
+// tag byte and its fields. Numbers are unsigned LEB128 varints, strings a
+// varint byte length then UTF-8:
+//   NFA        name, states, start, final count, finals...
+//   TRANSITION from, symbol, target count, targets...
+//   DFA        states
+//   ERROR      line, column, start, lexeme
+//   TOKEN      type ordinal, line, start, text
+//   SYMBOL     depth, line, name, datatype
+//   DUPLICATE  line, first line, name
+//   FILE       path, failed (0 or 1), then either the failure message or
+//              bytes, a count per TokenType, errors, symbols, duplicates
+//   METRICS    bytes, a count per TokenType, nanos per LexerMetrics.Phase,
+//              LENGTH_BUCKETS length counts, state count, visits per state
+//   END        report tag, count (NFA's count is its transition records)
+class BinarySink implements TokenSink {
+    static final int MAGIC = 0x4C585452;
+    static final int FORMAT_VERSION = 2;
+
+    static final int NFA = 1;
+    static final int TRANSITION = 2;
+    static final int DFA = 3;
+    static final int ERROR = 4;
+    static final int TOKEN = 5;
+    static final int SYMBOL = 6;
+    static final int DUPLICATE = 7;
+    static final int END = 8;
+    static final int FILE = 9;
+    static final int METRICS = 10;
+
+    private final DataOutputStream out;
+    private int transitions;
+
+    public BinarySink(OutputStream out) {
+        this(out, BUFFER_SIZE);
+    }
+
+    public BinarySink(OutputStream out, int bufferSize) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, bufferSize));
+        try {
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(FORMAT_VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void nfa(String name, int stateCount, int startState, BitSet finalStates) {
+        transitions = 0;
+        tag(NFA);
+        string(name);
+        varint(stateCount);
+        varint(startState);
+        varint(finalStates.cardinality());
+        for (int state = finalStates.nextSetBit(0); state >= 0; state = finalStates.nextSetBit(state + 1)) {
+            varint(state);
+        }
+    }
+
+    @Override
+    public void transition(int state, char symbol, int[] targets, int from, int to) {
+        transitions++;
+        tag(TRANSITION);
+        varint(state);
+        varint(symbol);
+        varint(to - from);
+        for (int i = from; i < to; i++) {
+            varint(targets[i]);
+        }
+    }
+
+    @Override
+    public void endNfa() {
+        end(NFA, transitions);
+    }
+
+    @Override
+    public void dfa(int stateCount) {
+        tag(DFA);
+        varint(stateCount);
+    }
+
+    @Override
+    public void error(TokenBuffer errors, int index) {
+        tag(ERROR);
+        varint(errors.line(index));
+        varint(errors.column(index));
+        varint(errors.start(index));
+        string(errors.text(index));
+    }
+
+    @Override
+    public void endErrors(int count) {
+        end(ERROR, count);
+    }
+
+    @Override
+    public void token(TokenBuffer tokens, int index) {
+        tag(TOKEN);
+        tag(tokens.type(index).ordinal());
+        varint(tokens.line(index));
+        varint(tokens.start(index));
+        string(tokens.text(index));
+    }
+
+    @Override
+    public void endTokens(int count) {
+        end(TOKEN, count);
+    }
+
+    @Override
+    public void symbol(SymbolTable table, int declaration) {
+        tag(SYMBOL);
+        varint(table.depth(declaration));
+        varint(table.line(declaration));
+        string(table.name(declaration));
+        string(table.datatype(declaration));
+    }
+
+    @Override
+    public void endSymbols(int count) {
+        end(SYMBOL, count);
+    }
+
+    @Override
+    public void duplicate(SymbolTable table, int declaration) {
+        tag(DUPLICATE);
+        varint(table.line(declaration));
+        varint(table.line(table.duplicateOf(declaration)));
+        string(table.name(declaration));
+    }
+
+    @Override
+    public void file(BatchLexer.FileResult result) {
+        tag(FILE);
+        string(result.file.toString());
+        tag(result.failure != null ? 1 : 0);
+        if (result.failure != null) {
+            string(result.failureMessage());
+            return;
+        }
+        LexerMetrics metrics = result.metrics;
+        varint(metrics.bytes());
+        for (TokenType type : TokenType.values()) {
+            varint(metrics.tokens(type));
+        }
+        varint(metrics.errors());
+        varint(result.symbols.size());
+        varint(result.symbols.duplicateCount());
+    }
+
+    @Override
+    public void endFiles(int count) {
+        end(FILE, count);
+    }
+
+    @Override
+    public void metrics(LexerMetrics metrics) {
+        tag(METRICS);
+        varint(metrics.bytes());
+        for (TokenType type : TokenType.values()) {
+            varint(metrics.tokens(type));
+        }
+        for (LexerMetrics.Phase phase : LexerMetrics.Phase.values()) {
+            varint(metrics.nanos(phase));
+        }
+        for (long count : metrics.lengthHistogram()) {
+            varint(count);
+        }
+        long[] visits = metrics.stateVisits();
+        varint(visits.length);
+        for (long count : visits) {
+            varint(count);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void end(int report, int count) {
+        tag(END);
+        tag(report);
+        varint(count);
+    }
+
+    private void tag(int tag) {
+        try {
+            out.writeByte(tag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void varint(long value) {
+        try {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void string(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        try {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
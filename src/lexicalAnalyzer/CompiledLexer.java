@@ -0,0 +1,101 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+
+// A lexer ready to use: the minimized DFA for chars and the Utf8DFA built from
+// it for bytes. Neither is written after it is built, so one CompiledLexer can
+// be shared by any number of threads, each lexing with its own Lexer or
+// MappedLexer.
+final class CompiledLexer {
+    // Bumped whenever compile() can build different tables for the same
+    // patterns, so tables saved by an older build are not loaded by a newer one.
+    static final int REVISION = 1;
+
+    private final DFA dfa;
+    private final Utf8DFA utf8;
+
+    CompiledLexer(DFA dfa) {
+        this.dfa = dfa;
+        this.utf8 = new Utf8DFA(dfa);
+    }
+
+    // Builds the lexer for pattern name -> regex, where each name is a TokenType.
+    public static CompiledLexer compile(Map<String, String> patterns) {
+        return compile(patterns, TokenSink.QUIET);
+    }
+
+    // As compile(patterns), reporting the combined NFA and the DFA's size to sink.
+    public static CompiledLexer compile(Map<String, String> patterns, TokenSink sink) {
+        return new CompiledLexer(combine(patterns, sink).convertNFAtoDFA(sink));
+    }
+
+    // The NFAs of all patterns merged into the one the DFA is built from,
+    // reported to sink.
+    static NFA combine(Map<String, String> patterns, TokenSink sink) {
+        List<NFA> nfas = new ArrayList<>();
+        for (Map.Entry<String, String> entry : patterns.entrySet()) {
+            NFA nfa = new NFA();
+            nfa.buildNFAFromRegex(entry.getKey(), entry.getValue());
+            nfas.add(nfa);
+        }
+
+        NFA combinedNFA = NFA.mergeNFAs(nfas);
+        combinedNFA.printNFA("Combined", sink);
+        return combinedNFA;
+    }
+
+    // Identifies the tables compile(patterns) builds: the patterns, the token
+    // types their names and accepted ordinals refer to, and REVISION.
+    public static int fingerprint(Map<String, String> patterns) {
+        return Objects.hash(new TreeMap<>(patterns).toString(), Arrays.toString(TokenType.values()), REVISION);
+    }
+
+    // Null when the file is missing or was written for other patterns.
+    public static CompiledLexer load(Path file, int fingerprint) throws IOException {
+        DFA dfa = DFA.load(file, fingerprint);
+        return dfa == null ? null : new CompiledLexer(dfa);
+    }
+
+    public void save(Path file, int fingerprint) throws IOException {
+        dfa.save(file, fingerprint);
+    }
+
+    public DFA dfa() {
+        return dfa;
+    }
+
+    public Utf8DFA utf8() {
+        return utf8;
+    }
+
+    public Lexer lexer(CharSequence input) {
+        return new Lexer(dfa, input);
+    }
+
+    public Lexer lexer(Reader reader) {
+        return new Lexer(dfa, reader);
+    }
+
+    // Lexes the file's UTF-8 bytes without decoding them.
+    public MappedLexer open(Path file) throws IOException {
+        return new MappedLexer(utf8, file);
+    }
+
+    // Lexes the remaining UTF-8 bytes of input without decoding them.
+    public MappedLexer open(ByteBuffer input) {
+        return new MappedLexer(utf8, input);
+    }
+
+    public TokenBuffer tokenize(CharSequence input) {
+        TokenBuffer tokens = new TokenBuffer();
+        try {
+            lexer(input).drainTo(tokens);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+}
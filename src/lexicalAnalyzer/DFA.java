@@ -0,0 +1,168 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+class DFA implements Automaton {
+    // Every ASCII character plus one symbol shared by everything else.
+    public static final int ALPHABET_SIZE = 129;
+    public static final char OTHER = (char) 128;
+
+    // Table file layout (big-endian): magic, format version, fingerprint of the
+    // token patterns, state count, class count, the class of every alphabet
+    // symbol, the accepted type ordinal of every state (-1 if none), then the
+    // transition table row by row.
+    private static final int MAGIC = 0x4C584446; // "LXDF"
+    private static final int FORMAT_VERSION = 2;
+
+    private final int[] transitions;
+    private final TokenType[] accepting;
+    private final byte[] classes;
+    private final int classCount;
+    private final int stateCount;
+    private final byte[] selfLoops;
+
+    // transitions has one row of classCount columns per state; classes maps each
+    // alphabet symbol to its column.
+    public DFA(int[] transitions, TokenType[] accepting, byte[] classes, int classCount) {
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.classes = classes;
+        this.classCount = classCount;
+        this.stateCount = accepting.length;
+        this.selfLoops = new byte[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            int loops = 0;
+            if (loopsOn(state, 'a', 'z')) {
+                loops |= LOWERCASE_RUN;
+            }
+            if (loopsOn(state, '0', '9')) {
+                loops |= DIGIT_RUN;
+            }
+            if (loopsOnAllBut(state, '\n')) {
+                loops |= ALL_BUT_NEWLINE_RUN;
+            }
+            if (loopsOnAllBut(state, '*')) {
+                loops |= ALL_BUT_STAR_RUN;
+            }
+            selfLoops[state] = (byte) loops;
+        }
+    }
+
+    private boolean loopsOn(int state, char first, char last) {
+        for (char c = first; c <= last; c++) {
+            if (next(state, c) != state) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Every symbol counts, OTHER included, since bytes and chars past ASCII map to it.
+    private boolean loopsOnAllBut(int state, char except) {
+        for (char c = 0; c < ALPHABET_SIZE; c++) {
+            if (c != except && next(state, c) != state) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int startState() {
+        return 0;
+    }
+
+    public int stateCount() {
+        return stateCount;
+    }
+
+    public int classCount() {
+        return classCount;
+    }
+
+    public int classOf(char c) {
+        return classes[c < OTHER ? c : OTHER] & 0xFF;
+    }
+
+    @Override
+    public int next(int state, char c) {
+        return transitions[state * classCount + (classes[c < OTHER ? c : OTHER] & 0xFF)];
+    }
+
+    @Override
+    public TokenType accepting(int state) {
+        return accepting[state];
+    }
+
+    @Override
+    public int selfLoops(int state) {
+        return selfLoops[state];
+    }
+
+    public void save(Path file, int fingerprint) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(fingerprint);
+            out.writeInt(stateCount);
+            out.writeInt(classCount);
+            out.write(classes);
+            for (TokenType type : accepting) {
+                out.writeByte(type == null ? -1 : type.ordinal());
+            }
+            for (int target : transitions) {
+                out.writeInt(target);
+            }
+        }
+    }
+
+    // Maps a table file written by save(). Returns null when the file is missing,
+    // from another format version, or built from different patterns, and throws
+    // IOException when any class, token type or target in it is out of range.
+    public static DFA load(Path file, int fingerprint) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+                    || buffer.getInt() != fingerprint) {
+                return null;
+            }
+            int stateCount = buffer.getInt();
+            int classCount = buffer.getInt();
+            long expected = ALPHABET_SIZE + (long) stateCount + 4L * stateCount * classCount;
+            if (stateCount <= 0 || classCount <= 0 || buffer.remaining() != expected) {
+                throw new IOException("Corrupt lexer table file: " + file);
+            }
+
+            byte[] classes = new byte[ALPHABET_SIZE];
+            buffer.get(classes);
+            for (byte column : classes) {
+                if ((column & 0xFF) >= classCount) {
+                    throw new IOException("Corrupt lexer table file: " + file);
+                }
+            }
+            TokenType[] accepting = new TokenType[stateCount];
+            int typeCount = TokenType.values().length;
+            for (int state = 0; state < stateCount; state++) {
+                int ordinal = buffer.get();
+                if (ordinal < -1 || ordinal >= typeCount) {
+                    throw new IOException("Corrupt lexer table file: " + file);
+                }
+                accepting[state] = ordinal < 0 ? null : TokenType.of(ordinal);
+            }
+            int[] transitions = new int[stateCount * classCount];
+            buffer.asIntBuffer().get(transitions);
+            for (int target : transitions) {
+                if (target < -1 || target >= stateCount) {
+                    throw new IOException("Corrupt lexer table file: " + file);
+                }
+            }
+            return new DFA(transitions, accepting, classes, classCount);
+        }
+    }
+}
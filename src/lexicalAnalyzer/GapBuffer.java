@@ -0,0 +1,136 @@
+package lexicalAnalyzer;
+
+import java.io.Reader;
+
+// Text with a gap of free chars where it was last edited. An edit moves the
+// gap to itself and then only touches the chars it removes and inserts, so a
+// run of edits in one place costs what they change, not the size of the text.
+final class GapBuffer implements CharSequence {
+    private static final int MIN_GAP = 64;
+
+    private char[] chars;
+    private int gapStart;
+    private int gapEnd;
+
+    GapBuffer(CharSequence text) {
+        int length = text.length();
+        chars = new char[length + MIN_GAP];
+        for (int i = 0; i < length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        gapStart = length;
+        gapEnd = chars.length;
+    }
+
+    @Override
+    public int length() {
+        return chars.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        return chars[index < gapStart ? index : index + gapEnd - gapStart];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        char[] copy = new char[end - start];
+        getChars(start, end, copy, 0);
+        return new String(copy);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+
+    // Copies the chars [start, end) into destination from offset on.
+    void getChars(int start, int end, char[] destination, int offset) {
+        if (start < gapStart) {
+            int before = Math.min(end, gapStart) - start;
+            System.arraycopy(chars, start, destination, offset, before);
+            offset += before;
+            start += before;
+        }
+        if (start < end) {
+            System.arraycopy(chars, start + gapEnd - gapStart, destination, offset, end - start);
+        }
+    }
+
+    // Replaces removedLength chars at offset with inserted.
+    void replace(int offset, int removedLength, CharSequence inserted) {
+        moveGap(offset);
+        gapEnd += removedLength;
+        int length = inserted.length();
+        if (gapEnd - gapStart < length) {
+            int capacity = Math.max(chars.length * 2, length() + length + MIN_GAP);
+            char[] grown = new char[capacity];
+            System.arraycopy(chars, 0, grown, 0, gapStart);
+            int after = chars.length - gapEnd;
+            System.arraycopy(chars, gapEnd, grown, capacity - after, after);
+            chars = grown;
+            gapEnd = capacity - after;
+        }
+        for (int i = 0; i < length; i++) {
+            chars[gapStart++] = inserted.charAt(i);
+        }
+    }
+
+    private void moveGap(int offset) {
+        if (offset < gapStart) {
+            int moved = gapStart - offset;
+            System.arraycopy(chars, offset, chars, gapEnd - moved, moved);
+            gapStart -= moved;
+            gapEnd -= moved;
+        } else if (offset > gapStart) {
+            int moved = offset - gapStart;
+            System.arraycopy(chars, gapEnd, chars, gapStart, moved);
+            gapStart += moved;
+            gapEnd += moved;
+        }
+    }
+
+    // Number of c in [start, end).
+    int count(char c, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Index of the last c before from, or -1.
+    int lastIndexOf(char c, int from) {
+        for (int i = from - 1; i >= 0; i--) {
+            if (charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Reads the text from offset on, as long as it is not edited meanwhile.
+    Reader reader(int offset) {
+        return new Reader() {
+            private int pos = offset;
+
+            @Override
+            public int read(char[] buffer, int off, int length) {
+                int end = Math.min(length(), pos + length);
+                if (pos >= end) {
+                    return length == 0 ? 0 : -1;
+                }
+                getChars(pos, end, buffer, off);
+                int read = end - pos;
+                pos = end;
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
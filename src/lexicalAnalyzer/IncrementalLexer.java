@@ -0,0 +1,145 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+
+// Keeps a document's tokens up to date across edits without lexing it again.
+// An edit is re-lexed from the last token before it that no earlier scan could
+// have looked past, and only until a new token lands on the start of an old one
+// behind the edit: the lexer is between tokens there and the text that follows
+// is unchanged, so the old tokens from there on only move by the edit's size.
+class IncrementalLexer {
+    private final Automaton dfa;
+
+    public IncrementalLexer(Automaton dfa) {
+        this.dfa = dfa;
+    }
+
+    // A document and its tokens, both updated in place by edit(). The last edit
+    // replaced the tokens changeStart until oldChangeEnd with those now from
+    // changeStart until changeEnd; every other token is the same apart from its
+    // offset and line. Text and tokens are held in gap buffers, so an edit costs
+    // what it changes plus the distance from the one before, not the size of the
+    // document.
+    static final class Document {
+        final GapBuffer text;
+        final TokenGapBuffer tokens;
+        int changeStart;
+        int changeEnd;
+        int oldChangeEnd;
+
+        Document(GapBuffer text, TokenGapBuffer tokens) {
+            this.text = text;
+            this.tokens = tokens;
+            this.changeEnd = tokens.size();
+        }
+
+        public String text() {
+            return text.toString();
+        }
+
+        public String text(int index) {
+            int start = tokens.start(index);
+            return text.subSequence(start, start + tokens.length(index)).toString();
+        }
+
+        private void changed(int changeStart, int changeEnd, int oldChangeEnd) {
+            this.changeStart = changeStart;
+            this.changeEnd = changeEnd;
+            this.oldChangeEnd = oldChangeEnd;
+        }
+    }
+
+    public Document lex(String text) {
+        GapBuffer buffer = new GapBuffer(text);
+        TokenGapBuffer tokens = new TokenGapBuffer(text.length(), buffer.count('\n', 0, text.length()) + 1);
+        try {
+            Lexer lexer = new Lexer(dfa, text);
+            while (lexer.next()) {
+                tokens.add(lexer.type(), (int) lexer.start(), (int) (lexer.end() - lexer.start()), lexer.line());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Document(buffer, tokens);
+    }
+
+    // Replaces removedLength chars at offset with inserted.
+    public void edit(Document document, int offset, int removedLength, String inserted) {
+        GapBuffer text = document.text;
+        if (offset < 0 || removedLength < 0 || offset + removedLength > text.length()) {
+            throw new IllegalArgumentException("Edit at " + offset + " removing " + removedLength
+                    + " chars is outside a document of " + text.length());
+        }
+        TokenGapBuffer tokens = document.tokens;
+        int first = restartToken(tokens, text, offset);
+        int from = first < tokens.size() ? tokens.start(first) : 0;
+        int line = first < tokens.size() ? tokens.line(first) : 1;
+        if (first == tokens.size()) {
+            first = 0;
+        }
+
+        // Everything from first on goes behind the gap, where the edit moves it.
+        tokens.moveGap(first);
+        int lineShift = -text.count('\n', offset, offset + removedLength);
+        for (int i = 0; i < inserted.length(); i++) {
+            if (inserted.charAt(i) == '\n') {
+                lineShift++;
+            }
+        }
+        text.replace(offset, removedLength, inserted);
+        tokens.moved(inserted.length() - removedLength, lineShift);
+        int editEnd = offset + inserted.length();
+
+        // New tokens go in front of the gap and old ones are dropped behind it.
+        int dropped = 0;
+        try {
+            Lexer lexer = new Lexer(dfa, text.reader(from), from, text.lastIndexOf('\n', from) + 1, line);
+            while (lexer.next()) {
+                long start = lexer.start();
+                if (start >= editEnd) {
+                    while (tokens.gap() < tokens.size() && tokens.start(tokens.gap()) < start) {
+                        tokens.removeAfterGap();
+                        dropped++;
+                    }
+                    if (tokens.gap() < tokens.size() && tokens.start(tokens.gap()) == start) {
+                        document.changed(first, tokens.gap(), first + dropped);
+                        return;
+                    }
+                }
+                tokens.add(lexer.type(), (int) start, (int) (lexer.end() - start), lexer.line());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        while (tokens.gap() < tokens.size()) {
+            tokens.removeAfterGap();
+            dropped++;
+        }
+        document.changed(first, tokens.gap(), first + dropped);
+    }
+
+    // Index of the last token starting at or before offset that follows whitespace,
+    // or tokens.size() when there is none. Only comment scans run over whitespace,
+    // and a token is never inside a comment, so nothing before it read the edit.
+    private static int restartToken(TokenGapBuffer tokens, GapBuffer text, int offset) {
+        int low = 0;
+        int high = tokens.size() - 1;
+        int index = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (tokens.start(middle) <= offset) {
+                index = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        for (; index >= 0; index--) {
+            int start = tokens.start(index);
+            if (start == 0 || Lexer.isWhitespace(text.charAt(start - 1))) {
+                return index;
+            }
+        }
+        return tokens.size();
+    }
+}
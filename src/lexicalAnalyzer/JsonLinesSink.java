@@ -0,0 +1,214 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// One JSON object per line and per record, e.g.
+// {"record":"token","type":"Keyword","text":"int","line":1,"start":0}.
+// Each report ends with {"record":"end","report":"tokens","count":N}.
+class JsonLinesSink implements TokenSink {
+    private final Writer out;
+
+    public JsonLinesSink(OutputStream out) {
+        this(out, BUFFER_SIZE);
+    }
+
+    public JsonLinesSink(OutputStream out, int bufferSize) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferSize);
+    }
+
+    @Override
+    public void nfa(String name, int stateCount, int startState, BitSet finalStates) {
+        write("{\"record\":\"nfa\",\"name\":");
+        string(name);
+        write(",\"states\":" + stateCount + ",\"start\":" + startState + ",\"final\":[");
+        boolean first = true;
+        for (int state = finalStates.nextSetBit(0); state >= 0; state = finalStates.nextSetBit(state + 1)) {
+            write(first ? "" : ",");
+            write(Integer.toString(state));
+            first = false;
+        }
+        write("]}\n");
+    }
+
+    @Override
+    public void transition(int state, char symbol, int[] targets, int from, int to) {
+        write("{\"record\":\"transition\",\"from\":" + state + ",\"symbol\":");
+        string(String.valueOf(symbol));
+        write(",\"to\":[");
+        for (int i = from; i < to; i++) {
+            write(i > from ? "," : "");
+            write(Integer.toString(targets[i]));
+        }
+        write("]}\n");
+    }
+
+    @Override
+    public void endNfa() {
+        end("nfa", -1);
+    }
+
+    @Override
+    public void dfa(int stateCount) {
+        write("{\"record\":\"dfa\",\"states\":" + stateCount + "}\n");
+    }
+
+    @Override
+    public void error(TokenBuffer errors, int index) {
+        write("{\"record\":\"error\",\"lexeme\":");
+        string(errors.text(index));
+        write(",\"reason\":");
+        string(UNRECOGNIZED_REASON);
+        write(",\"line\":" + errors.line(index) + ",\"column\":" + errors.column(index)
+                + ",\"start\":" + errors.start(index) + "}\n");
+    }
+
+    @Override
+    public void endErrors(int count) {
+        end("errors", count);
+    }
+
+    @Override
+    public void token(TokenBuffer tokens, int index) {
+        write("{\"record\":\"token\",\"type\":");
+        string(tokens.type(index).toString());
+        write(",\"text\":");
+        string(tokens.text(index));
+        write(",\"line\":" + tokens.line(index) + ",\"start\":" + tokens.start(index) + "}\n");
+    }
+
+    @Override
+    public void endTokens(int count) {
+        end("tokens", count);
+    }
+
+    @Override
+    public void symbol(SymbolTable table, int declaration) {
+        write("{\"record\":\"symbol\",\"name\":");
+        string(table.name(declaration));
+        write(",\"datatype\":");
+        string(table.datatype(declaration));
+        write(",\"scope\":");
+        string(TextSink.scope(table, declaration));
+        write(",\"depth\":" + table.depth(declaration) + ",\"line\":" + table.line(declaration) + "}\n");
+    }
+
+    @Override
+    public void endSymbols(int count) {
+        end("symbols", count);
+    }
+
+    @Override
+    public void duplicate(SymbolTable table, int declaration) {
+        write("{\"record\":\"duplicate\",\"name\":");
+        string(table.name(declaration));
+        write(",\"line\":" + table.line(declaration)
+                + ",\"firstLine\":" + table.line(table.duplicateOf(declaration)) + "}\n");
+    }
+
+    @Override
+    public void file(BatchLexer.FileResult result) {
+        write("{\"record\":\"file\",\"path\":");
+        string(result.file.toString());
+        if (result.failure != null) {
+            write(",\"failure\":");
+            string(result.failureMessage());
+            write("}\n");
+            return;
+        }
+        LexerMetrics metrics = result.metrics;
+        write(",\"bytes\":" + metrics.bytes() + ",\"tokens\":" + metrics.tokens());
+        for (TokenType type : TokenType.values()) {
+            if (type == TokenType.COMMENT) {
+                continue;
+            }
+            write(",");
+            string(type.toString());
+            write(":" + metrics.tokens(type));
+        }
+        write(",\"errors\":" + metrics.errors() + ",\"symbols\":" + result.symbols.size()
+                + ",\"duplicates\":" + result.symbols.duplicateCount() + "}\n");
+    }
+
+    @Override
+    public void endFiles(int count) {
+        end("files", count);
+    }
+
+    @Override
+    public void metrics(LexerMetrics metrics) {
+        write("{\"record\":\"metrics\",\"bytes\":" + metrics.bytes() + ",\"tokens\":{");
+        for (TokenType type : TokenType.values()) {
+            if (type == TokenType.COMMENT) {
+                continue;
+            }
+            write(type.ordinal() > 0 ? "," : "");
+            string(type.toString());
+            write(":" + metrics.tokens(type));
+        }
+        write("},\"errors\":" + metrics.errors() + ",\"nanos\":{");
+        for (LexerMetrics.Phase phase : LexerMetrics.Phase.values()) {
+            write(phase.ordinal() > 0 ? "," : "");
+            string(phase.name().toLowerCase());
+            write(":" + metrics.nanos(phase));
+        }
+        write("},\"tokensPerSecond\":" + Math.round(metrics.tokensPerSecond())
+                + ",\"bytesPerSecond\":" + Math.round(metrics.bytesPerSecond()) + ",\"tokenLengths\":{");
+        long[] lengths = metrics.lengthHistogram();
+        boolean first = true;
+        for (int bucket = 0; bucket < lengths.length; bucket++) {
+            if (lengths[bucket] > 0) {
+                write(first ? "" : ",");
+                string(TextSink.lengthRange(bucket));
+                write(":" + lengths[bucket]);
+                first = false;
+            }
+        }
+        write("},\"stateVisits\":[");
+        long[] visits = metrics.stateVisits();
+        for (int state = 0; state < visits.length; state++) {
+            write(state > 0 ? "," : "");
+            write(Long.toString(visits[state]));
+        }
+        write("]}\n");
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void end(String report, int count) {
+        write("{\"record\":\"end\",\"report\":\"" + report + "\"");
+        write(count >= 0 ? ",\"count\":" + count + "}\n" : "}\n");
+    }
+
+    private void string(String text) {
+        write("\"");
+        int plain = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\') {
+                continue;
+            }
+            write(text.substring(plain, i));
+            write(c == '"' ? "\\\"" : c == '\\' ? "\\\\" : String.format("\\u%04x", (int) c));
+            plain = i + 1;
+        }
+        write(text.substring(plain));
+        write("\"");
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
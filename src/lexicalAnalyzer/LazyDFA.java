@@ -0,0 +1,175 @@
+package lexicalAnalyzer;
+
+import java.util.*;
+
+// A DFA built while it runs, in the manner of RE2: every state is a set of NFA
+// states, created the first time the input reaches it, and each transition is
+// computed once and then read from the table like DFA's. At most capacity states
+// are kept. A full cache is flushed and refilled from the current position; if
+// flushes come so often that little input is lexed per state built, the cache
+// is given up and next() steps the NFA state sets directly from then on.
+//
+// A LazyDFA changes as it is used, so unlike DFA it must not be shared between
+// threads; build one per thread from the same NFA instead.
+final class LazyDFA implements Automaton {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // A cache that flushes before lexing this many chars per state it holds is thrashing.
+    private static final int MIN_STEPS_PER_STATE = 10;
+    private static final int UNKNOWN = -2;
+
+    private final NFA nfa;
+    private final byte[] classes;
+    private final int classCount;
+    private final char[] representative;
+    private final int capacity;
+    private final int[] stack;
+    private final long[] move;
+    private final long[] startSet;
+
+    // States 0 until size are cached; the two after capacity hold the current
+    // and next set while simulating.
+    private final long[][] sets;
+    private final TokenType[] accepting;
+    private final int[] transitions;
+    private final Map<NFA.StateSet, Integer> ids = new HashMap<>();
+    private int size;
+    private int start = -1;
+
+    private long steps;
+    private int flushes;
+    private boolean simulating;
+
+    public LazyDFA(NFA nfa, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Lazy DFA capacity must be positive: " + capacity);
+        }
+        this.nfa = nfa;
+        this.capacity = capacity;
+        this.classes = nfa.alphabetClasses();
+        int classCount = 0;
+        for (byte id : classes) {
+            classCount = Math.max(classCount, (id & 0xFF) + 1);
+        }
+        this.classCount = classCount;
+        this.representative = new char[classCount];
+        for (int c = DFA.ALPHABET_SIZE - 1; c >= 0; c--) {
+            representative[classes[c] & 0xFF] = (char) c;
+        }
+
+        this.stack = new int[nfa.stateLimit()];
+        this.startSet = nfa.startSet(stack);
+        this.move = new long[startSet.length];
+        this.sets = new long[capacity + 2][];
+        sets[capacity] = new long[startSet.length];
+        sets[capacity + 1] = new long[startSet.length];
+        this.accepting = new TokenType[capacity + 2];
+        this.transitions = new int[capacity * classCount];
+        Arrays.fill(transitions, UNKNOWN);
+    }
+
+    @Override
+    public int startState() {
+        if (simulating) {
+            System.arraycopy(startSet, 0, sets[capacity], 0, startSet.length);
+            accepting[capacity] = nfa.acceptingType(startSet);
+            return capacity;
+        }
+        if (start < 0) {
+            start = intern(startSet.clone());
+        }
+        return start;
+    }
+
+    @Override
+    public int next(int state, char c) {
+        int column = classes[c < DFA.OTHER ? c : DFA.OTHER] & 0xFF;
+        steps++;
+        if (state >= capacity) {
+            return simulate(state, column);
+        }
+        int target = transitions[state * classCount + column];
+        return target != UNKNOWN ? target : build(state, column);
+    }
+
+    @Override
+    public TokenType accepting(int state) {
+        return accepting[state];
+    }
+
+    // Computes a transition the cache does not have yet.
+    private int build(int state, int column) {
+        if (!nfa.step(sets[state], representative[column], move, stack)) {
+            transitions[state * classCount + column] = -1;
+            return -1;
+        }
+        Integer known = ids.get(new NFA.StateSet(move));
+        if (known != null) {
+            transitions[state * classCount + column] = known;
+            return known;
+        }
+
+        int flushesBefore = flushes;
+        int target = intern(move.clone());
+        // After a flush state no longer names the set it was built from.
+        if (flushes == flushesBefore && target < capacity) {
+            transitions[state * classCount + column] = target;
+        }
+        return target;
+    }
+
+    // Adds a set that is not cached yet, flushing the cache first when it is
+    // full. Returns a simulation slot instead once the cache has been given up.
+    private int intern(long[] set) {
+        if (size == capacity) {
+            flush();
+        }
+        if (simulating) {
+            System.arraycopy(set, 0, sets[capacity], 0, set.length);
+            accepting[capacity] = nfa.acceptingType(set);
+            return capacity;
+        }
+        int id = size++;
+        sets[id] = set;
+        accepting[id] = nfa.acceptingType(set);
+        ids.put(new NFA.StateSet(set), id);
+        return id;
+    }
+
+    private void flush() {
+        flushes++;
+        if (steps < (long) MIN_STEPS_PER_STATE * capacity) {
+            simulating = true;
+        }
+        steps = 0;
+        ids.clear();
+        Arrays.fill(sets, 0, capacity, null);
+        Arrays.fill(transitions, UNKNOWN);
+        size = 0;
+        start = -1;
+    }
+
+    // One step of plain NFA simulation between the two slots after capacity.
+    private int simulate(int state, int column) {
+        int target = state == capacity ? capacity + 1 : capacity;
+        if (!nfa.step(sets[state], representative[column], sets[target], stack)) {
+            return -1;
+        }
+        accepting[target] = nfa.acceptingType(sets[target]);
+        return target;
+    }
+
+    // Number of states in the cache now.
+    public int cachedStates() {
+        return size;
+    }
+
+    public int flushes() {
+        return flushes;
+    }
+
+    // True once the cache has been given up for NFA simulation.
+    public boolean simulating() {
+        return simulating;
+    }
+}
@@ -0,0 +1,38 @@
+package lexicalAnalyzer;
+
+class LexemeErrorCollector implements TokenConsumer {
+    private final TokenBuffer errors = new TokenBuffer();
+    private final TokenSink sink;
+
+    public LexemeErrorCollector() {
+        this(TokenSink.QUIET);
+    }
+
+    public LexemeErrorCollector(TokenSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void token(TokenStream stream) {
+        if (stream.type() != TokenType.UNRECOGNIZED) return;
+
+        errors.token(stream);
+    }
+
+    @Override
+    public void end() {
+        sink.beginErrors();
+        for (int i = 0; i < errors.size(); i++) {
+            sink.error(errors, i);
+        }
+        sink.endErrors(errors.size());
+    }
+
+    public int errorCount() {
+        return errors.size();
+    }
+
+    public TokenBuffer errors() {
+        return errors;
+    }
+}
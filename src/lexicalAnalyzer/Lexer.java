@@ -0,0 +1,230 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+class Lexer implements TokenStream {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Automaton dfa;
+    private final Reader reader;
+    private char[] buffer;
+    private int pos;
+    private int limit;
+    private long bufferOffset;
+    private boolean eof;
+    private final LineIndex lines;
+
+    private TokenType type;
+    private long start;
+    private long end;
+
+    public Lexer(Automaton dfa, CharSequence input) {
+        this.dfa = dfa;
+        this.reader = null;
+        this.buffer = input.toString().toCharArray();
+        this.limit = buffer.length;
+        this.eof = true;
+        this.lines = new LineIndex(0, 0, 1);
+    }
+
+    public Lexer(Automaton dfa, Reader reader) {
+        this(dfa, reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    // Only bufferSize chars are held at a time; the buffer grows only when a
+    // single token is longer than that.
+    public Lexer(Automaton dfa, Reader reader, int bufferSize) {
+        this(dfa, reader, bufferSize, 0, 0, 1);
+    }
+
+    // Lexes a reader already positioned at offset, which must be between tokens
+    // and outside any comment. Positions continue from offset, which is on line
+    // line, starting at lineStart.
+    Lexer(Automaton dfa, Reader reader, long offset, long lineStart, int line) {
+        this(dfa, reader, DEFAULT_BUFFER_SIZE, offset, lineStart, line);
+    }
+
+    private Lexer(Automaton dfa, Reader reader, int bufferSize, long offset, long lineStart, int line) {
+        this.dfa = dfa;
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        this.bufferOffset = offset;
+        this.lines = new LineIndex(lineStart, offset, line);
+    }
+
+    public Lexer(Automaton dfa, ReadableByteChannel channel) {
+        this(dfa, Channels.newReader(channel, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE);
+    }
+
+    public static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // Drops everything before pos, its line starts included, and reads more
+    // input behind it.
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (pos > 0) {
+            index(bufferOffset + pos);
+            lines.discardBefore(bufferOffset + pos);
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            bufferOffset += pos;
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    // Records the newlines before position, which must still be buffered, and
+    // those of up to SCAN_AHEAD more buffered chars.
+    private void index(long position) {
+        long scanned = lines.scanned();
+        if (scanned < position) {
+            int to = (int) Math.min(limit, position - bufferOffset + LineIndex.SCAN_AHEAD);
+            lines.scan(buffer, (int) (scanned - bufferOffset), to);
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return false;
+            }
+            if (isWhitespace(buffer[pos])) {
+                pos++;
+                continue;
+            }
+
+            // Maximal munch: run the DFA as far as it goes and keep the last accepting length.
+            int state = dfa.startState();
+            int length = 0;
+            int acceptedLength = 0;
+            TokenType acceptedType = null;
+            while (true) {
+                if (pos + length == limit) {
+                    // Nothing but more comment can follow a comment, so its text
+                    // is never needed again: drop it and keep just the state, and
+                    // a comment of any length fits in the buffer.
+                    if (acceptedType == TokenType.COMMENT && acceptedLength == length) {
+                        pos += length;
+                        length = 0;
+                        acceptedLength = 0;
+                    }
+                    if (!fill()) {
+                        break;
+                    }
+                }
+                state = dfa.next(state, buffer[pos + length]);
+                if (state < 0) {
+                    break;
+                }
+                length++;
+                int loops = dfa.selfLoops(state);
+                if (loops != 0) {
+                    int skipped = skipRun(loops, pos + length);
+                    if (skipped > 0) {
+                        dfa.skipped(state, skipped);
+                        length += skipped;
+                    }
+                }
+                TokenType accepted = dfa.accepting(state);
+                if (accepted != null) {
+                    acceptedLength = length;
+                    acceptedType = accepted;
+                }
+            }
+
+            if (acceptedType == TokenType.COMMENT) {
+                pos += acceptedLength;
+                continue;
+            }
+            if (acceptedType == null) {
+                acceptedLength = 1;
+                acceptedType = TokenType.UNRECOGNIZED;
+            }
+            type = acceptedType;
+            start = bufferOffset + pos;
+            end = start + acceptedLength;
+            pos += acceptedLength;
+            return true;
+        }
+    }
+
+    // Length of the buffered run of chars from offset that the automaton loops on.
+    private int skipRun(int loops, int offset) {
+        int end = offset;
+        while (end < limit && Automaton.staysOn(loops, buffer[end])) {
+            end++;
+        }
+        return end - offset;
+    }
+
+    @Override
+    public TokenType type() {
+        return type;
+    }
+
+    @Override
+    public long start() {
+        return start;
+    }
+
+    @Override
+    public long end() {
+        return end;
+    }
+
+    @Override
+    public int line(long position) {
+        index(position);
+        return lines.line(position);
+    }
+
+    @Override
+    public int column(long position) {
+        index(position);
+        return lines.column(position);
+    }
+
+    // Line starts held, which for a Reader only cover the buffered text.
+    int lineStarts() {
+        return lines.size();
+    }
+
+    // A Reader's text is dropped once it has been lexed.
+    @Override
+    public boolean retainsText() {
+        return reader == null;
+    }
+
+    @Override
+    public char charAt(long position) {
+        if (position < bufferOffset || position >= bufferOffset + limit) {
+            throw new IllegalStateException("Text at " + position + " is no longer buffered");
+        }
+        return buffer[(int) (position - bufferOffset)];
+    }
+
+    @Override
+    public String text(long start, int length) {
+        if (start < bufferOffset || start + length > bufferOffset + limit) {
+            throw new IllegalStateException("Text at " + start + " is no longer buffered");
+        }
+        return new String(buffer, (int) (start - bufferOffset), length);
+    }
+}
@@ -0,0 +1,62 @@
+package lexicalAnalyzer;
+
+import jdk.jfr.*;
+
+// Flight Recorder events for the lexer, so a production JVM can be asked what
+// it is lexing and how long it takes (jcmd <pid> JFR.start) without a profiler.
+// Both are cheap to create and skip all work when no recording enables them.
+final class LexerEvents {
+    private LexerEvents() {
+    }
+
+    @Name("lexicalAnalyzer.AutomatonBuild")
+    @Label("Automaton Build")
+    @Category("Lexical Analyzer")
+    @Description("Compiling the lexer from its patterns, or loading the compiled tables")
+    static final class AutomatonBuild extends Event {
+        @Label("Loaded From Tables")
+        boolean loaded;
+
+        @Label("DFA States")
+        int dfaStates;
+
+        @Label("Alphabet Classes")
+        int alphabetClasses;
+    }
+
+    @Name("lexicalAnalyzer.Lex")
+    @Label("Lex Input")
+    @Category("Lexical Analyzer")
+    @Description("Reading and scanning one input")
+    static final class Lex extends Event {
+        @Label("Input")
+        String input;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Tokens")
+        long tokens;
+
+        @Label("Errors")
+        long errors;
+
+        @Label("Read Time")
+        @Timespan
+        long readNanos;
+
+        @Label("Scan Time")
+        @Timespan
+        long scanNanos;
+
+        void set(String input, LexerMetrics metrics) {
+            this.input = input;
+            this.bytes = metrics.bytes();
+            this.tokens = metrics.tokens();
+            this.errors = metrics.errors();
+            this.readNanos = metrics.nanos(LexerMetrics.Phase.READ);
+            this.scanNanos = metrics.nanos(LexerMetrics.Phase.SCAN);
+        }
+    }
+}
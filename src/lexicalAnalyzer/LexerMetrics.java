@@ -0,0 +1,180 @@
+package lexicalAnalyzer;
+
+import java.util.*;
+
+// Counters for one lexing job: tokens per kind, bytes, time per phase and
+// histograms of token lengths and DFA state visits. Used as a TokenConsumer
+// it counts every token it is fed; meter() wraps an Automaton so that the
+// states the scanner passes through are counted too. An instance belongs to
+// one thread at a time; merge() adds up the metrics of several.
+class LexerMetrics implements TokenConsumer {
+    enum Phase {
+        CONSTRUCTION("Construction"), READ("Read"), SCAN("Scan");
+
+        private final String displayName;
+
+        Phase(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    // Bucket b holds lengths up to 2^b that do not fit in bucket b - 1, so
+    // 1, 2, 3-4, 5-8, ... and everything past 2^(BUCKETS - 2) in the last one.
+    static final int LENGTH_BUCKETS = 16;
+
+    private final long[] tokens = new long[TokenType.values().length];
+    private final long[] lengths = new long[LENGTH_BUCKETS];
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private long[] stateVisits = new long[0];
+    private long bytes;
+
+    @Override
+    public void token(TokenStream stream) {
+        tokens[stream.type().ordinal()]++;
+        lengths[lengthBucket((int) (stream.end() - stream.start()))]++;
+    }
+
+    static int lengthBucket(int length) {
+        int bucket = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1);
+        return Math.min(bucket, LENGTH_BUCKETS - 1);
+    }
+
+    // Smallest length that falls into bucket.
+    static int bucketStart(int bucket) {
+        return bucket == 0 ? 1 : (1 << (bucket - 1)) + 1;
+    }
+
+    public void addBytes(long count) {
+        bytes += count;
+    }
+
+    public void record(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    // An automaton that behaves like dfa and counts each state it enters.
+    public Automaton meter(Automaton dfa) {
+        return new MeteredAutomaton(dfa);
+    }
+
+    public void merge(LexerMetrics other) {
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] += other.tokens[i];
+        }
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] += other.lengths[i];
+        }
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+        }
+        if (other.stateVisits.length > stateVisits.length) {
+            stateVisits = Arrays.copyOf(stateVisits, other.stateVisits.length);
+        }
+        for (int i = 0; i < other.stateVisits.length; i++) {
+            stateVisits[i] += other.stateVisits[i];
+        }
+        bytes += other.bytes;
+    }
+
+    public long tokens() {
+        long total = 0;
+        for (long count : tokens) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long tokens(TokenType type) {
+        return tokens[type.ordinal()];
+    }
+
+    public long errors() {
+        return tokens[TokenType.UNRECOGNIZED.ordinal()];
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    public long nanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    // Rates over the time spent reading and scanning; 0 before any was recorded.
+    public double tokensPerSecond() {
+        return perSecond(tokens());
+    }
+
+    public double bytesPerSecond() {
+        return perSecond(bytes);
+    }
+
+    private double perSecond(long count) {
+        long nanos = nanos(Phase.READ) + nanos(Phase.SCAN);
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    // Tokens per length bucket; see LENGTH_BUCKETS.
+    public long[] lengthHistogram() {
+        return lengths.clone();
+    }
+
+    // Entries per DFA state, indexed by state; empty unless meter() was used.
+    public long[] stateVisits() {
+        return stateVisits.clone();
+    }
+
+    private void visit(int state) {
+        if (state >= stateVisits.length) {
+            stateVisits = Arrays.copyOf(stateVisits, Math.max(state + 1, stateVisits.length * 2));
+        }
+        stateVisits[state]++;
+    }
+
+    private final class MeteredAutomaton implements Automaton {
+        private final Automaton dfa;
+
+        MeteredAutomaton(Automaton dfa) {
+            this.dfa = dfa;
+        }
+
+        @Override
+        public int startState() {
+            int state = dfa.startState();
+            visit(state);
+            return state;
+        }
+
+        @Override
+        public int next(int state, char c) {
+            int target = dfa.next(state, c);
+            if (target >= 0) {
+                visit(target);
+            }
+            return target;
+        }
+
+        @Override
+        public TokenType accepting(int state) {
+            return dfa.accepting(state);
+        }
+
+        // Forwarded so that metering leaves run skipping on.
+        @Override
+        public int selfLoops(int state) {
+            return dfa.selfLoops(state);
+        }
+
+        @Override
+        public void skipped(int state, int count) {
+            visit(state);
+            stateVisits[state] += count - 1;
+            dfa.skipped(state, count);
+        }
+    }
+}
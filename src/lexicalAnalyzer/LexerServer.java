@@ -0,0 +1,165 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+// Keeps one CompiledLexer resident and lexes source sent over a local socket,
+// so a client pays for neither JVM startup nor a cold JIT per file. Listens on
+// a loopback TCP port or a Unix-domain socket path.
+//
+// Both directions are a stream of frames: a big-endian int length, then that
+// many bytes. A request frame holds one format byte (FORMAT_BINARY, _JSONL or
+// _TEXT) and the UTF-8 source. Its response frame holds a status byte and then,
+// for STATUS_OK, the errors, tokens and symbols reports in that format, as main
+// writes them for code.txt but with text always in UTF-8; for STATUS_ERROR, a
+// UTF-8 message. Clients
+// may send any number of requests without waiting for answers. Responses come
+// back in request order and are flushed whenever no further request is already
+// buffered, so a pipelined burst goes out in few writes.
+final class LexerServer implements Closeable {
+    static final byte FORMAT_BINARY = 0;
+    static final byte FORMAT_JSONL = 1;
+    static final byte FORMAT_TEXT = 2;
+    private static final String[] FORMATS = {"binary", "jsonl", "text"};
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    // Larger requests are answered with an error and skipped.
+    private static final int MAX_REQUEST_SIZE = 64 << 20;
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Responses are built in memory, so the sinks need little buffer of their own.
+    private static final int SINK_BUFFER_SIZE = 512;
+
+    private final CompiledLexer lexer;
+    private final ServerSocketChannel server;
+    private final SocketAddress address;
+    private final ExecutorService connections = Executors.newCachedThreadPool(BatchLexer.daemonThreads("lexer-connection-"));
+
+    private LexerServer(CompiledLexer lexer, ServerSocketChannel server, SocketAddress address) {
+        this.lexer = lexer;
+        this.server = server;
+        this.address = address;
+    }
+
+    // A port number listens on the loopback interface, anything else is taken
+    // as the path of a Unix-domain socket, which must not exist yet.
+    public static LexerServer open(CompiledLexer lexer, String endpoint) throws IOException {
+        if (endpoint.matches("\\d+")) {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(endpoint)));
+            return new LexerServer(lexer, server, server.getLocalAddress());
+        }
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(endpoint);
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(address);
+        return new LexerServer(lexer, server, address);
+    }
+
+    public SocketAddress address() {
+        return address;
+    }
+
+    // Accepts connections until the server is closed or the calling thread is
+    // interrupted, each served on its own thread.
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            if (address instanceof InetSocketAddress) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            connections.execute(() -> serve(channel));
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            byte[] request = new byte[0];
+
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length < 1) {
+                    respond(out, STATUS_ERROR, message("Bad request length: " + length));
+                    break;
+                }
+
+                response.reset();
+                if (length > MAX_REQUEST_SIZE) {
+                    in.skipNBytes(length);
+                    respond(out, STATUS_ERROR, message("Request of " + length + " bytes is over the limit of " + MAX_REQUEST_SIZE));
+                } else {
+                    if (request.length < length) {
+                        request = new byte[Math.max(length, request.length * 2)];
+                    }
+                    in.readFully(request, 0, length);
+                    if (request[0] < 0 || request[0] >= FORMATS.length) {
+                        respond(out, STATUS_ERROR, message("Unknown format: " + request[0]));
+                    } else {
+                        try {
+                            lex(ByteBuffer.wrap(request, 1, length - 1), request[0], response);
+                            respond(out, STATUS_OK, response);
+                        } catch (RuntimeException e) {
+                            respond(out, STATUS_ERROR, message("Error lexing request: " + e));
+                        }
+                    }
+                }
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // The client went away mid-frame; nothing is left to answer.
+        }
+    }
+
+    // The source is lexed as the UTF-8 bytes it came in, so positions in the
+    // reports are byte offsets into it.
+    private void lex(ByteBuffer code, byte format, ByteArrayOutputStream response) throws IOException {
+        TokenSink sink = format == FORMAT_TEXT
+                ? new TextSink(response, StandardCharsets.UTF_8, SINK_BUFFER_SIZE)
+                : TokenSink.forFormat(FORMATS[format], response, SINK_BUFFER_SIZE);
+        lexer.open(code).drainTo(new LexemeErrorCollector(sink), new TokenListing(sink), new SymbolTableBuilder(sink));
+        sink.flush();
+    }
+
+    private static ByteArrayOutputStream message(String text) {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        message.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+
+    private static void respond(DataOutputStream out, byte status, ByteArrayOutputStream payload) throws IOException {
+        out.writeInt(1 + payload.size());
+        out.writeByte(status);
+        payload.writeTo(out);
+    }
+
+    // Stops accepting; connections already open are served to their end.
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdown();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+}
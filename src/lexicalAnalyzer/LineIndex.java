@@ -0,0 +1,149 @@
+package lexicalAnalyzer;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+// Where the lines of an input start, so lexers can keep plain offsets and turn
+// one into a line and column only when asked. The owner scans text for newlines
+// at least as far as the furthest position it needs, usually the token just
+// lexed, and must scan whatever it is about to discard before it does. An
+// owner that streams its input can discard the lines behind it too, so the
+// index holds only the lines of the text still buffered.
+final class LineIndex {
+    // How far past the position asked for owners scan, so a forward pass over
+    // the tokens scans in blocks rather than a token at a time.
+    static final int SCAN_AHEAD = 1 << 12;
+
+    // Line of starts[0], which moves on as lines are discarded.
+    private int firstLine;
+    private long[] starts = new long[64];
+    private int count = 1;
+    private long scanned;
+    // Line of the last lookup; the next is usually on it or a little after it.
+    private int recent;
+
+    // The input from offset on is on line firstLine, which starts at lineStart.
+    LineIndex(long lineStart, long offset, int firstLine) {
+        this.firstLine = firstLine;
+        this.starts[0] = lineStart;
+        this.scanned = offset;
+    }
+
+    // Newlines before this offset are recorded.
+    long scanned() {
+        return scanned;
+    }
+
+    // Records the newlines in text[from, to), where text[from] is at offset scanned().
+    void scan(char[] text, int from, int to) {
+        long base = scanned - from;
+        for (int i = from; i < to; i++) {
+            if (text[i] == '\n') {
+                add(base + i + 1);
+            }
+        }
+        scanned = base + to;
+    }
+
+    // As scan(char[], ...), eight bytes at a time; bytes must be little-endian.
+    void scan(ByteBuffer bytes, int from, int to) {
+        long base = scanned - from;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long newlines = Swar.inRange(bytes.getLong(i), '\n', '\n');
+            while (newlines != 0) {
+                add(base + i + (Long.numberOfTrailingZeros(newlines) >>> 3) + 1);
+                newlines &= newlines - 1;
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes.get(i) == '\n') {
+                add(base + i + 1);
+            }
+        }
+        scanned = base + to;
+    }
+
+    // Adds the lines of the index that goes on where this one was scanned to,
+    // starting at a line start, as the ranges of ParallelLexer do.
+    void append(LineIndex next) {
+        if (next.starts[0] != scanned) {
+            throw new IllegalArgumentException("Index at " + next.starts[0] + " does not go on from " + scanned);
+        }
+        for (int i = 1; i < next.count; i++) {
+            add(next.starts[i]);
+        }
+        scanned = next.scanned;
+    }
+
+    // Forgets the lines that end before position, which must be scanned;
+    // positions before the start of its line can no longer be looked up.
+    void discardBefore(long position) {
+        int kept = lineIndex(position);
+        if (kept == 0) {
+            return;
+        }
+        count -= kept;
+        System.arraycopy(starts, kept, starts, 0, count);
+        firstLine += kept;
+        recent = 0;
+    }
+
+    // Number of line starts held.
+    int size() {
+        return count;
+    }
+
+    private void add(long lineStart) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+        }
+        starts[count++] = lineStart;
+    }
+
+    // Line of a scanned position, counted from firstLine. Positions on the line
+    // of the last one looked up, as most tokens of a forward scan are, skip the
+    // search; later ones gallop forward from it, costing the log of the lines skipped.
+    public int line(long position) {
+        return firstLine + lineIndex(position);
+    }
+
+    // Column of a scanned position, counted from 1 in chars or bytes as the owner counts offsets.
+    public int column(long position) {
+        return (int) (position - starts[lineIndex(position)]) + 1;
+    }
+
+    private int lineIndex(long position) {
+        if (position > scanned || position < starts[0]) {
+            throw new IllegalArgumentException("Position " + position + " is outside the scanned text");
+        }
+        int low;
+        int high;
+        if (position >= starts[recent]) {
+            if (recent + 1 == count || starts[recent + 1] > position) {
+                return recent;
+            }
+            // Gallop forward from recent, then search the last step taken.
+            low = recent + 1;
+            int step = 1;
+            while (low + step < count && starts[low + step] <= position) {
+                low += step;
+                step <<= 1;
+            }
+            high = Math.min(low + step, count) - 1;
+        } else {
+            low = 0;
+            high = recent;
+        }
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        recent = low;
+        return low;
+    }
+}
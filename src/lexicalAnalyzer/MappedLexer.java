@@ -0,0 +1,293 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+// Lexes a file straight from a read-only memory mapping, or bytes already in
+// memory. Bytes are fed to the automaton as they are, so nothing is decoded
+// unless text() is asked for, and token positions are byte offsets into the
+// input. A Utf8DFA reads UTF-8 code points whole; a DFA sees every byte past
+// ASCII as one OTHER char.
+class MappedLexer implements TokenStream, Closeable {
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final Automaton dfa;
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final long rangeEnd;
+    private ByteBuffer window;
+    private long windowOffset;
+    private int pos;
+    private int limit;
+    private final LineIndex lines;
+    private boolean inBlockComment;
+    private boolean endsInComment;
+    // State of a comment that ran to the end of the range, or -1.
+    private int commentEndState = -1;
+
+    private TokenType type;
+    private long start;
+    private long end;
+
+    public MappedLexer(Automaton dfa, Path file) throws IOException {
+        this(dfa, FileChannel.open(file, StandardOpenOption.READ), true);
+    }
+
+    private MappedLexer(Automaton dfa, FileChannel channel, boolean ownsChannel) throws IOException {
+        this.dfa = dfa;
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.rangeEnd = channel.size();
+        this.lines = new LineIndex(0, 0, 1);
+        map(0);
+    }
+
+    // Lexes the remaining bytes of input, which is left as it is. Offsets count
+    // from its position.
+    public MappedLexer(Automaton dfa, ByteBuffer input) {
+        this.dfa = dfa;
+        this.channel = null;
+        this.ownsChannel = false;
+        this.rangeEnd = input.remaining();
+        this.lines = new LineIndex(0, 0, 1);
+        this.window = input.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.limit = (int) rangeEnd;
+    }
+
+    // Lexes only the bytes [from, to) of a shared channel, starting either
+    // between tokens or inside a block comment. Lines are counted from 1 at from.
+    MappedLexer(Automaton dfa, FileChannel channel, long from, long to, boolean inBlockComment) throws IOException {
+        this.dfa = dfa;
+        this.channel = channel;
+        this.ownsChannel = false;
+        this.rangeEnd = to;
+        this.inBlockComment = inBlockComment;
+        this.lines = new LineIndex(from, from, 1);
+        map(from);
+    }
+
+    // Files larger than one mapping are walked in windows; a window is remapped
+    // to start at pos whenever a token, or the unread rest of a comment, runs
+    // past its end. Input in memory is one window that never moves.
+    private void map(long offset) throws IOException {
+        windowOffset = offset;
+        limit = (int) Math.min(WINDOW_SIZE, rangeEnd - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, limit);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        pos = 0;
+    }
+
+    private boolean fill() throws IOException {
+        if (windowOffset + limit >= rangeEnd) {
+            return false;
+        }
+        if (pos == 0) {
+            throw new IOException("Token at byte " + windowOffset + " is longer than the mapping window");
+        }
+        index(windowOffset + pos);
+        map(windowOffset + pos);
+        return true;
+    }
+
+    // Records the newlines before position, which must be in the window, and
+    // those of up to SCAN_AHEAD more mapped bytes.
+    private void index(long position) {
+        long scanned = lines.scanned();
+        if (scanned < position) {
+            int to = (int) Math.min(limit, position - windowOffset + LineIndex.SCAN_AHEAD);
+            lines.scan(window, (int) (scanned - windowOffset), to);
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                // A range that is comment to the end never gets to close it.
+                endsInComment |= inBlockComment;
+                return false;
+            }
+            // Whitespace eight bytes at a time while a whole word is mapped.
+            if (pos + Long.BYTES <= limit) {
+                int run = Swar.run(Swar.whitespace(window.getLong(pos)));
+                if (run > 0) {
+                    pos += run;
+                    continue;
+                }
+            }
+            if (Lexer.isWhitespace((char) (window.get(pos) & 0xFF))) {
+                pos++;
+                continue;
+            }
+
+            // A range that starts inside a block comment is lexed as if "/*" came first.
+            int state = dfa.startState();
+            if (inBlockComment) {
+                inBlockComment = false;
+                state = dfa.next(state, '/');
+                if (state >= 0) {
+                    state = dfa.next(state, '*');
+                }
+                if (state < 0) {
+                    throw new IllegalStateException("The automaton has no block comments to resume");
+                }
+            }
+            int length = 0;
+            int acceptedLength = 0;
+            TokenType acceptedType = dfa.accepting(state);
+            while (true) {
+                if (pos + length == limit) {
+                    // As in Lexer, a comment carries only its state into the
+                    // next window, so it may be longer than a window.
+                    if (acceptedType == TokenType.COMMENT && acceptedLength == length) {
+                        pos += length;
+                        length = 0;
+                        acceptedLength = 0;
+                    }
+                    if (!fill()) {
+                        break;
+                    }
+                }
+                state = dfa.next(state, (char) (window.get(pos + length) & 0xFF));
+                if (state < 0) {
+                    break;
+                }
+                length++;
+                int loops = dfa.selfLoops(state);
+                if (loops != 0) {
+                    int skipped = skipRun(loops, pos + length);
+                    if (skipped > 0) {
+                        dfa.skipped(state, skipped);
+                        length += skipped;
+                    }
+                }
+                TokenType accepted = dfa.accepting(state);
+                if (accepted != null) {
+                    acceptedLength = length;
+                    acceptedType = accepted;
+                }
+            }
+
+            if (acceptedType == TokenType.COMMENT) {
+                if (windowOffset + pos + acceptedLength == rangeEnd) {
+                    commentEndState = state;
+                }
+                pos += acceptedLength;
+                continue;
+            }
+            if (acceptedType == null) {
+                acceptedLength = 1;
+                acceptedType = TokenType.UNRECOGNIZED;
+            }
+            type = acceptedType;
+            start = windowOffset + pos;
+            end = start + acceptedLength;
+            pos += acceptedLength;
+            return true;
+        }
+    }
+
+    // Length of the run of bytes from offset that the automaton loops on, counted
+    // a word at a time; the tail of the window is left to the byte-wise loop.
+    private int skipRun(int loops, int offset) {
+        int length = 0;
+        while (offset + length + Long.BYTES <= limit) {
+            long word = window.getLong(offset + length);
+            long mask = 0;
+            if ((loops & Automaton.LOWERCASE_RUN) != 0) {
+                mask |= Swar.lowercase(word);
+            }
+            if ((loops & Automaton.DIGIT_RUN) != 0) {
+                mask |= Swar.digits(word);
+            }
+            if ((loops & Automaton.ALL_BUT_NEWLINE_RUN) != 0) {
+                mask |= Swar.allBut(word, '\n');
+            }
+            if ((loops & Automaton.ALL_BUT_STAR_RUN) != 0) {
+                mask |= Swar.allBut(word, '*');
+            }
+            int run = Swar.run(mask);
+            length += run;
+            if (run < Long.BYTES) {
+                break;
+            }
+        }
+        return length;
+    }
+
+    // True when the input ended inside an unclosed block comment. The comment
+    // it ended in may have spanned windows, so this asks its state: only a block
+    // comment still waiting for its "*/" moves on '\n', which ends a line comment
+    // and can follow no closed comment.
+    public boolean endsInComment() {
+        return endsInComment || commentEndState >= 0 && dfa.next(commentEndState, '\n') >= 0;
+    }
+
+    // Where the lines of the range start; once next() has returned false, it
+    // covers the whole range.
+    LineIndex lines() {
+        index(windowOffset + pos);
+        return lines;
+    }
+
+    @Override
+    public TokenType type() {
+        return type;
+    }
+
+    @Override
+    public long start() {
+        return start;
+    }
+
+    @Override
+    public long end() {
+        return end;
+    }
+
+    @Override
+    public int line(long position) {
+        index(position);
+        return lines.line(position);
+    }
+
+    // Counted in bytes.
+    @Override
+    public int column(long position) {
+        index(position);
+        return lines.column(position);
+    }
+
+    @Override
+    public char charAt(long position) {
+        if (position >= windowOffset && position < windowOffset + limit) {
+            return (char) (window.get((int) (position - windowOffset)) & 0xFF);
+        }
+        return TokenStream.super.charAt(position);
+    }
+
+    @Override
+    public String text(long start, int length) {
+        byte[] bytes = new byte[length];
+        if (start >= windowOffset && start + length <= windowOffset + limit) {
+            window.get((int) (start - windowOffset), bytes);
+        } else {
+            try {
+                channel.read(ByteBuffer.wrap(bytes), start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+}
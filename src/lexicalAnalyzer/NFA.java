@@ -1,521 +1,679 @@
-package lexicalAnalyzer;
-
-import java.io.*;
-import java.util.*;
-
-class NFA {
-    public Set<Integer> states;
-    private Map<Integer, Map<Character, Set<Integer>>> transitions;
-    public int startState;
-    public Set<Integer> finalStates;
-    private static int stateCounter = 0; // Unique state counter
-    private static final Map<String, NFA> nfaMap = new HashMap<>();
-
-    public NFA() {
-        states = new HashSet<>();
-        transitions = new HashMap<>();
-        finalStates = new HashSet<>();
-    }
-
-    public void buildNFAFromRegex(String regexName, String pattern) {
-        int start = stateCounter++;
-        states.add(start);
-
-        switch (regexName) {
-            case "Identifier":
-                addSingleFinalStateTransition(start, 'a', 'z');
-                break;
-            case "Number":
-                int numberState = stateCounter++;
-                states.add(numberState);
-                addCharacterRangeTransition(start, numberState, '0', '9', true);
-                finalStates.add(numberState); 
-
-                int decimalPointState = stateCounter++;
-                states.add(decimalPointState);
-                addTransition(numberState, decimalPointState, '.'); 
-                
-                int decimalState = stateCounter++;
-                states.add(decimalState);
-                addCharacterRangeTransition(decimalPointState, decimalState, '0', '9', true);
-                finalStates.add(decimalState); 
-                break;
-            case "Keyword":
-                addWordTransition(start, new String[]{"for", "if", "else", "return", "void", "main", "int", "bool", "char", "float"});
-                break;
-            case "Operator":
-                int operatorFinalState = stateCounter++;
-                states.add(operatorFinalState);
-                addTransition(start, operatorFinalState, '+', '-', '*', '/', '%', '=');
-                finalStates.add(operatorFinalState); 
-                break;
-            case "Punctuator":
-                int punctuatorFinalState = stateCounter++;
-                states.add(punctuatorFinalState);
-                addTransition(start, punctuatorFinalState, ',', ';', '{', '}', '[', ']', '(', ')');
-                finalStates.add(punctuatorFinalState); 
-                break;
-        }
-
-        startState = start;
-    }
-
-    private void addWordTransition(int start, String[] words) {
-        for (String word : words) {
-            int current = start;
-            for (char c : word.toCharArray()) {
-                int next = stateCounter++;
-                states.add(next);
-                addTransition(current, next, c);
-                current = next;
-            }
-            finalStates.add(current); 
-        }
-    }
-
-    private void addSingleFinalStateTransition(int from, char start, char end) {
-        int finalState = stateCounter++;
-        states.add(finalState);
-        finalStates.add(finalState);
-
-        for (char c = start; c <= end; c++) {
-            addTransition(from, finalState, c);
-            addTransition(finalState, finalState, c); 
-        }
-    }
-
-    private void addCharacterRangeTransition(int from, int to, char start, char end, boolean repeat) {
-        for (char c = start; c <= end; c++) {
-            addTransition(from, to, c);
-            if (repeat) {
-                addTransition(to, to, c); 
-            }
-        }
-    }
-
-    private void addTransition(int from, int to, char... symbols) {
-        states.add(to);
-        transitions.putIfAbsent(from, new HashMap<>());
-
-        for (char symbol : symbols) {
-            transitions.get(from).computeIfAbsent(symbol, k -> new HashSet<>()).add(to);
-        }
-    }
-
-    public boolean isAccepted(String token) {
-        Set<Integer> currentStates = new HashSet<>();
-        currentStates.add(startState);
-
-        for (char c : token.toCharArray()) {
-            Set<Integer> nextStates = new HashSet<>();
-            for (int state : currentStates) {
-                if (transitions.containsKey(state) && transitions.get(state).containsKey(c)) {
-                    nextStates.addAll(transitions.get(state).get(c));
-                }
-            }
-            currentStates = nextStates;
-        }
-
-        for (int state : currentStates) {
-            if (finalStates.contains(state)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    public String[] tokenizeCode(String code, Map<String, NFA> nfaMap) {
-        code = code.replaceAll("//.*", " "); 
-        code = code.replaceAll("(?s)/\\.?\\*/", " ");
-        String[] tokens = code.split("\\s+|(?=[{}()=;,])|(?<=[{}()=;,])");
-        List<String> validTokens = new ArrayList<>();
-        int totalTokens = 0;
-
-        System.out.println("\nTokenized Code:");
-        System.out.println("==============================");
-
-        for (String token : tokens) {
-            if (token.isEmpty()) continue;
-
-            String tokenType = null;
-
-            if (nfaMap.get("Keyword").isAccepted(token)) {
-                tokenType = "Keyword";
-            } else if (nfaMap.get("Number").isAccepted(token)) {
-                tokenType = "Number";
-            } else if (nfaMap.get("Operator").isAccepted(token)) {
-                tokenType = "Operator";
-            } else if (nfaMap.get("Punctuator").isAccepted(token)) {
-                tokenType = "Punctuator";
-            } else if (nfaMap.get("Identifier").isAccepted(token)) {
-                tokenType = "Identifier";  
-            }
-
-            if (tokenType != null) {
-                System.out.println("Token: " + token + ", Type: " + tokenType);
-                validTokens.add(token);
-                totalTokens++;
-            }
-        }
-
-        System.out.println("==============================");
-        System.out.println("Total Number of Tokens: " + totalTokens);
-        return validTokens.toArray(new String[0]);
-    }
-
-
-    public void printNFA(String regexName) {
-        System.out.println("\n==============================");
-        System.out.println("  NFA for: " + regexName);
-        System.out.println("==============================");
-        System.out.println("Total States: " + states.size());
-        System.out.println("Start State: " + startState);
-        System.out.println("Final States: " + finalStates);
-        System.out.println("------------------------------");
-        System.out.println("Transitions:");
-
-        List<Integer> sortedStates = new ArrayList<>(states);
-        Collections.sort(sortedStates);
-
-        for (int state : sortedStates) {
-            if (transitions.containsKey(state)) {
-                for (var trans : transitions.get(state).entrySet()) {
-                    char symbol = trans.getKey();
-                    List<Integer> targets = new ArrayList<>(trans.getValue());
-                    Collections.sort(targets);
-                    
-                    System.out.println("  State " + state + " --(" + symbol + ")--> " + targets);
-                }
-            }
-        }
-
-        System.out.println("==============================\n");
-    }
-
-    public static NFA mergeNFAs(List<NFA> nfas) {
-        NFA combinedNFA = new NFA();
-        int newStart = stateCounter++;
-
-        combinedNFA.states.add(newStart);
-        combinedNFA.startState = newStart;
-
-        for (NFA nfa : nfas) {
-            combinedNFA.states.addAll(nfa.states);
-            combinedNFA.finalStates.addAll(nfa.finalStates);
-            combinedNFA.transitions.putAll(nfa.transitions);
-
-            combinedNFA.transitions.putIfAbsent(newStart, new HashMap<>());
-            combinedNFA.transitions.get(newStart).computeIfAbsent('ε', k -> new HashSet<>()).add(nfa.startState);
-        }
-
-        return combinedNFA;
-    }
-    
-
-    public void createSymbolTable(String code, Map<String, NFA> nfaMap) {
-        String[] lines = code.split("\n");
-        boolean isLocal = false;
-        boolean foundVariables = false;
-        boolean inMultiLineComment = false;
-
-        System.out.println("\nSymbol Table:");
-        System.out.println("==========================================");
-        System.out.printf("%-15s %-10s %-10s%n", "Identifier", "Datatype", "Scope");
-        System.out.println("------------------------------------------");
-
-        for (String line : lines) {
-            line = line.trim();
-
-            if (line.startsWith("/*")) {
-                inMultiLineComment = true;
-                System.out.println("Multi-line Comment: " + line);
-                continue;
-            }
-            
-            if (inMultiLineComment) {
-                System.out.println(line);
-                if (line.endsWith("*/")) {
-                    inMultiLineComment = false;
-                }
-                continue;
-            }
-            
-            if (line.startsWith("//")) {
-                System.out.println("Single-line Comment: " + line);
-                continue;
-            }
-            
-            String[] tokens = line.split("\\s+|(?=[{}()=;,])|(?<=[{}()=;,])");
-
-            for (int i = 0; i < tokens.length; i++) {
-                String token = tokens[i];
-
-                if (token.equals("main") && i + 1 < tokens.length && tokens[i + 1].equals("(")) {
-                    isLocal = true;
-                }
-
-                if (token.equals("int") || token.equals("float") || token.equals("bool") || token.equals("char")) {
-                    String datatype = token;
-                    int j = i + 1;
-
-                    while (j < tokens.length) {
-                        String nextToken = tokens[j];
-                        if (nextToken.equals(";")) break;
-                        if (nextToken.equals("=") || nextToken.equals(",")) {
-                            j++;
-                            continue;
-                        }
-
-                        if (nfaMap.get("Identifier").isAccepted(nextToken) && !nextToken.equals("main")) {
-                            foundVariables = true;
-                            String scope = isLocal ? "Local" : "Global";
-                            System.out.printf("%-15s %-10s %-10s%n", nextToken, datatype, scope);
-                        }
-                        j++;
-                    }
-                }
-            }
-        }
-
-        if (!foundVariables) {
-            System.out.println("No variables found.");
-        }
-
-        System.out.println("==========================================");
-    }
-
-    
-    public void detectLexemeErrors(String code, Map<String, NFA> nfaMap) {
-        String[] lines = code.split("\\n"); // Split code into lines
-
-        System.out.println("\nLexeme Errors:");
-        System.out.println("==========================================");
-        System.out.printf("%-10s %-15s %-20s%n", "Line No", "Unidentified Token", "Reason");
-        System.out.println("------------------------------------------");
-
-        boolean foundErrors = false;
-        boolean insideBlockComment = false; 
-
-        for (int lineNumber = 0; lineNumber < lines.length; lineNumber++) {
-            String line = lines[lineNumber].trim(); 
-
-            if (line.startsWith("//")) {
-                continue;
-            }
-            if (line.contains("/*")) {
-                insideBlockComment = true;
-            }
-
-            if (insideBlockComment) {
-                if (line.contains("*/")) {
-                    insideBlockComment = false; 
-                }
-                continue;
-            }
-
-            String[] tokens = line.split("\\s+|(?=[{}()=;,])|(?<=[{}()=;,])");
-
-            for (String token : tokens) {
-                if (token.isEmpty()) continue;
-
-                boolean matched = false;
-
-                if (nfaMap.get("Keyword").isAccepted(token) ||
-                    nfaMap.get("Number").isAccepted(token) ||
-                    nfaMap.get("Operator").isAccepted(token) ||
-                    nfaMap.get("Punctuator").isAccepted(token) ||
-                    nfaMap.get("Identifier").isAccepted(token)) {
-                    matched = true;
-                }
-
-                if (!matched) {
-                    foundErrors = true;
-                    System.out.printf("%-10d %-15s %-20s%n", (lineNumber + 1), token, "Unrecognized token");
-                }
-            }
-        }
-
-        if (!foundErrors) {
-            System.out.println("No lexeme errors found.");
-        }
-
-        System.out.println("==========================================");
-    }
-
-    private Set<Integer> epsilonClosure(Set<Integer> states) {
-        Stack<Integer> stack = new Stack<>();
-        Set<Integer> closure = new HashSet<>(states);
-        
-        for (int state : states) {
-            stack.push(state);
-        }
-        
-        while (!stack.isEmpty()) {
-            int state = stack.pop();
-            if (transitions.containsKey(state) && transitions.get(state).containsKey('ε')) {
-                for (int nextState : transitions.get(state).get('ε')) {
-                    if (closure.add(nextState)) {
-                        stack.push(nextState);
-                    }
-                }
-            }
-        }
-        return closure;
-    }
-
-    public void convertNFAtoDFA() {
-       
-        Map<Set<Integer>, Integer> dfaStates = new HashMap<>();
-        Queue<Set<Integer>> queue = new LinkedList<>();
-        int dfaStateCounter = 0;
-        
-        Set<Integer> startSet = epsilonClosure(Set.of(startState));
-        dfaStates.put(startSet, dfaStateCounter++);
-        queue.add(startSet);
-        
-        Map<Integer, Map<Character, Integer>> dfaTransitions = new HashMap<>();
-        Set<Integer> dfaFinalStates = new HashSet<>();
-        
-        if (!Collections.disjoint(startSet, finalStates)) {
-            dfaFinalStates.add(0);
-        }
-        
-        while (!queue.isEmpty()) {
-            Set<Integer> currentSet = queue.poll();
-            int dfaState = dfaStates.get(currentSet);
-            dfaTransitions.putIfAbsent(dfaState, new HashMap<>());
-            
-            Map<Character, Set<Integer>> transitionMap = new HashMap<>();
-            
-            for (int state : currentSet) {
-                if (transitions.containsKey(state)) {
-                    for (var entry : transitions.get(state).entrySet()) {
-                        char symbol = entry.getKey();
-                        Set<Integer> targetStates = entry.getValue();
-                        
-                        transitionMap.putIfAbsent(symbol, new HashSet<>());
-                        transitionMap.get(symbol).addAll(targetStates);
-                    }
-                }
-            }
-            
-            for (var entry : transitionMap.entrySet()) {
-                char symbol = entry.getKey();
-                Set<Integer> nextStateSet = epsilonClosure(entry.getValue());
-                
-                if (!dfaStates.containsKey(nextStateSet)) {
-                    dfaStates.put(nextStateSet, dfaStateCounter);
-                    queue.add(nextStateSet);
-                    
-                    if (!Collections.disjoint(nextStateSet, finalStates)) {
-                        dfaFinalStates.add(dfaStateCounter);
-                    }
-                    
-                    dfaStateCounter++;
-                }
-                
-                dfaTransitions.get(dfaState).put(symbol, dfaStates.get(nextStateSet));
-            }
-        }
-
-        minimizeDFA(dfaTransitions, dfaFinalStates);
-    }
-
-    
-    private void printDFA(Map<Integer, Integer> stateMapping, Map<Integer, Map<Character, Integer>> dfaTransitions, Set<Integer> dfaFinalStates) {
-        System.out.println("Total DFA States: " + stateMapping.size());
-       /* System.out.println("Start State: 0");
-        System.out.println("Final States: " + dfaFinalStates);
-        System.out.println("------------------------------");
-        System.out.println("DFA Transitions:");
-        
-        for (var entry : dfaTransitions.entrySet()) {
-            int fromState = entry.getKey();
-            for (var trans : entry.getValue().entrySet()) {
-                char symbol = trans.getKey();
-                int toState = trans.getValue();
-                System.out.println("  State " + fromState + " --(" + symbol + ")--> " + toState);
-            }
-        }
-        */
-        System.out.println("==============================\n");
-    }
-
-    private void minimizeDFA(Map<Integer, Map<Character, Integer>> dfaTransitions, Set<Integer> dfaFinalStates) {
-        System.out.println("\n==============================");
-        System.out.println("        DFA Minimization       ");
-        System.out.println("==============================");
-        
-        Set<Integer> allStates = new HashSet<>(dfaTransitions.keySet());
-        Set<Integer> nonFinalStates = new HashSet<>(allStates);
-        nonFinalStates.removeAll(dfaFinalStates);
-
-        List<Set<Integer>> partitions = new ArrayList<>();
-        partitions.add(new HashSet<>(dfaFinalStates));
-        partitions.add(nonFinalStates);
-
-        boolean changed = true;
-
-        while (changed) {
-            changed = false;
-            List<Set<Integer>> newPartitions = new ArrayList<>();
-
-            for (Set<Integer> group : partitions) {
-                Map<Map<Character, Integer>, Set<Integer>> transitionGroups = new HashMap<>();
-
-                for (int state : group) {
-                    Map<Character, Integer> transitions = dfaTransitions.getOrDefault(state, new HashMap<>());
-
-                    transitionGroups.putIfAbsent(transitions, new HashSet<>());
-                    transitionGroups.get(transitions).add(state);
-                }
-
-                newPartitions.addAll(transitionGroups.values());
-            }
-
-            if (newPartitions.size() > partitions.size()) {
-                partitions = newPartitions;
-                changed = true;
-            }
-        }
-
-        Map<Integer, Integer> stateMapping = new HashMap<>();
-        int newStateCounter = 0;
-
-        for (Set<Integer> group : partitions) {
-            int representative = group.iterator().next();
-            for (int state : group) {
-                stateMapping.put(state, newStateCounter);
-            }
-            newStateCounter++;
-        }
-
-        Map<Integer, Map<Character, Integer>> minimizedTransitions = new HashMap<>();
-        Set<Integer> minimizedFinalStates = new HashSet<>();
-
-        for (var entry : dfaTransitions.entrySet()) {
-            int originalState = entry.getKey();
-            int newState = stateMapping.get(originalState);
-
-            minimizedTransitions.putIfAbsent(newState, new HashMap<>());
-
-            for (var trans : entry.getValue().entrySet()) {
-                char symbol = trans.getKey();
-                int targetState = stateMapping.get(trans.getValue());
-
-                minimizedTransitions.get(newState).put(symbol, targetState);
-            }
-
-            if (dfaFinalStates.contains(originalState)) {
-                minimizedFinalStates.add(newState);
-            }
-        }
-
-        System.out.println("\nAfter Minimization:");
-        printDFA(stateMapping, minimizedTransitions, minimizedFinalStates);
-    }
-
-    
-
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.util.*;
+
+class NFA {
+    static final char EPSILON = 'ε';
+
+    // States are numbered from 0 in each NFA; mergeNFAs renumbers them apart.
+    private final BitSet states;
+    private int startState;
+    private final BitSet finalStates;
+    private TokenType[] finalStateTypes;
+    private int stateCount;
+    private DFA dfa;
+
+    // Edges are appended here while the NFA is being built.
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private char[] edgeSymbol;
+    private int edgeCount;
+
+    // freeze() packs the edges into CSR rows: the edges leaving state s are
+    // rowStart[s] until rowStart[s + 1], sorted by symbol and then target.
+    private int[] rowStart;
+    private char[] symbols;
+    private int[] targets;
+    private long[] finalBits;
+
+    // State sets and the closure stack, reused by every isAccepted call.
+    private long[] current;
+    private long[] next;
+    private int[] stack;
+
+    public NFA() {
+        states = new BitSet();
+        finalStates = new BitSet();
+        finalStateTypes = new TokenType[16];
+        edgeFrom = new int[64];
+        edgeTo = new int[64];
+        edgeSymbol = new char[64];
+    }
+
+    public void buildNFAFromRegex(String regexName, String pattern) {
+        // Compiled patterns are cached, so building the same lexer again only
+        // copies the program's edges under fresh state numbers.
+        RegexCompiler.Program program = RegexCompiler.compile(pattern);
+        int base = stateCount;
+        stateCount += program.stateCount;
+
+        for (int state = 0; state < program.stateCount; state++) {
+            states.set(base + state);
+        }
+        for (int i = 0; i < program.edgeCount(); i++) {
+            addTransition(base + program.from[i], base + program.to[i], program.symbol[i]);
+        }
+
+        finalStates.set(base + program.accept);
+        setFinalStateType(base + program.accept, TokenType.fromName(regexName));
+        startState = base + program.start;
+    }
+
+    private void addTransition(int from, int to, char... symbols) {
+        states.set(to);
+
+        for (char symbol : symbols) {
+            if (edgeCount == edgeFrom.length) {
+                int capacity = edgeCount * 2;
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeSymbol = Arrays.copyOf(edgeSymbol, capacity);
+            }
+            edgeFrom[edgeCount] = from;
+            edgeTo[edgeCount] = to;
+            edgeSymbol[edgeCount] = symbol;
+            edgeCount++;
+        }
+        rowStart = null;
+    }
+
+    private void setFinalStateType(int state, TokenType type) {
+        if (state >= finalStateTypes.length) {
+            finalStateTypes = Arrays.copyOf(finalStateTypes, Math.max(state + 1, finalStateTypes.length * 2));
+        }
+        finalStateTypes[state] = type;
+    }
+
+    private void freeze() {
+        if (rowStart != null) {
+            return;
+        }
+        int stateLimit = states.length();
+
+        // Sort edges by (from, symbol, to) packed into one long and drop duplicates,
+        // which the old set-of-targets representation never stored.
+        long[] keys = new long[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            keys[i] = ((long) edgeFrom[i] << 40) | ((long) edgeSymbol[i] << 24) | edgeTo[i];
+        }
+        Arrays.sort(keys);
+
+        int unique = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[unique++] = keys[i];
+            }
+        }
+
+        rowStart = new int[stateLimit + 1];
+        symbols = new char[unique];
+        targets = new int[unique];
+        for (int i = 0; i < unique; i++) {
+            rowStart[(int) (keys[i] >>> 40) + 1]++;
+            symbols[i] = (char) (keys[i] >>> 24);
+            targets[i] = (int) (keys[i] & 0xFFFFFF);
+        }
+        for (int state = 0; state < stateLimit; state++) {
+            rowStart[state + 1] += rowStart[state];
+        }
+
+        int words = (stateLimit + 63) >>> 6;
+        finalBits = Arrays.copyOf(finalStates.toLongArray(), words);
+        current = new long[words];
+        next = new long[words];
+        stack = new int[stateLimit];
+    }
+
+    // Adds every state reachable through epsilon edges to the set, in place.
+    private void closeOver(long[] set) {
+        closeOver(set, stack);
+    }
+
+    // As closeOver(set), with the caller's own stack of stateLimit() entries.
+    private void closeOver(long[] set, int[] stack) {
+        int top = 0;
+        for (int word = 0; word < set.length; word++) {
+            long bits = set[word];
+            while (bits != 0) {
+                stack[top++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+
+        while (top > 0) {
+            int state = stack[--top];
+            for (int edge = rowStart[state]; edge < rowStart[state + 1]; edge++) {
+                int target = targets[edge];
+                if (symbols[edge] == EPSILON && (set[target >>> 6] & (1L << target)) == 0) {
+                    set[target >>> 6] |= 1L << target;
+                    stack[top++] = target;
+                }
+            }
+        }
+    }
+
+    // Upper bound of the state numbers, and the size of a step() stack.
+    int stateLimit() {
+        freeze();
+        return rowStart.length - 1;
+    }
+
+    // The start state and everything reachable from it through epsilon edges.
+    long[] startSet(int[] stack) {
+        freeze();
+        long[] set = new long[current.length];
+        set[startState >>> 6] |= 1L << startState;
+        closeOver(set, stack);
+        return set;
+    }
+
+    // Moves every state in from on c into to, closed over epsilon edges.
+    // Returns false, leaving to empty, when no state has a move on c. Only the
+    // frozen edges are read, so threads with their own stacks can share the NFA.
+    boolean step(long[] from, char c, long[] to, int[] stack) {
+        Arrays.fill(to, 0);
+        boolean reachable = false;
+
+        for (int word = 0; word < from.length; word++) {
+            long bits = from[word];
+            while (bits != 0) {
+                int state = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                for (int edge = rowStart[state]; edge < rowStart[state + 1] && symbols[edge] <= c; edge++) {
+                    if (symbols[edge] == c) {
+                        to[targets[edge] >>> 6] |= 1L << targets[edge];
+                        reachable = true;
+                    }
+                }
+            }
+        }
+
+        if (reachable) {
+            closeOver(to, stack);
+        }
+        return reachable;
+    }
+
+    public boolean isAccepted(String token) {
+        freeze();
+        Arrays.fill(current, 0);
+        current[startState >>> 6] |= 1L << startState;
+        closeOver(current);
+
+        for (int i = 0; i < token.length(); i++) {
+            if (!step(current, token.charAt(i), next, stack)) {
+                return false;
+            }
+            long[] swap = current;
+            current = next;
+            next = swap;
+        }
+
+        for (int word = 0; word < current.length; word++) {
+            if ((current[word] & finalBits[word]) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Lexes the code once and feeds every token to all of the consumers.
+    public void lex(String code, TokenConsumer... consumers) {
+        if (dfa == null) {
+            convertNFAtoDFA();
+        }
+        try {
+            new Lexer(dfa, code).drainTo(consumers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public TokenBuffer tokenizeCode(String code) {
+        return tokenizeCode(code, TokenSink.QUIET);
+    }
+
+    public TokenBuffer tokenizeCode(String code, TokenSink sink) {
+        TokenListing listing = new TokenListing(sink);
+        lex(code, listing);
+        return listing.tokens();
+    }
+
+
+    // Reports the states and transitions, one record per (state, symbol) pair.
+    public void printNFA(String regexName, TokenSink sink) {
+        freeze();
+        sink.nfa(regexName, states.cardinality(), startState, finalStates);
+
+        for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+            int edge = rowStart[state];
+            while (edge < rowStart[state + 1]) {
+                char symbol = symbols[edge];
+                int first = edge;
+                while (edge < rowStart[state + 1] && symbols[edge] == symbol) {
+                    edge++;
+                }
+                sink.transition(state, symbol, targets, first, edge);
+            }
+        }
+
+        sink.endNfa();
+    }
+
+    // Each NFA's states are moved up past the ones before it, and the new start
+    // state comes last with an epsilon edge to every old start.
+    public static NFA mergeNFAs(List<NFA> nfas) {
+        NFA combinedNFA = new NFA();
+        int newStart = 0;
+        for (NFA nfa : nfas) {
+            newStart += nfa.stateCount;
+        }
+        combinedNFA.stateCount = newStart + 1;
+        combinedNFA.states.set(newStart);
+        combinedNFA.startState = newStart;
+
+        int base = 0;
+        for (NFA nfa : nfas) {
+            for (int state = nfa.states.nextSetBit(0); state >= 0; state = nfa.states.nextSetBit(state + 1)) {
+                combinedNFA.states.set(base + state);
+            }
+            for (int state = nfa.finalStates.nextSetBit(0); state >= 0; state = nfa.finalStates.nextSetBit(state + 1)) {
+                combinedNFA.finalStates.set(base + state);
+                combinedNFA.setFinalStateType(base + state, nfa.finalStateTypes[state]);
+            }
+            for (int i = 0; i < nfa.edgeCount; i++) {
+                combinedNFA.addTransition(base + nfa.edgeFrom[i], base + nfa.edgeTo[i], nfa.edgeSymbol[i]);
+            }
+
+            combinedNFA.addTransition(newStart, base + nfa.startState, EPSILON);
+            base += nfa.stateCount;
+        }
+
+        return combinedNFA;
+    }
+    
+
+    public SymbolTable createSymbolTable(String code) {
+        return createSymbolTable(code, TokenSink.QUIET);
+    }
+
+    public SymbolTable createSymbolTable(String code, TokenSink sink) {
+        SymbolTableBuilder builder = new SymbolTableBuilder(sink);
+        lex(code, builder);
+        return builder.table();
+    }
+
+    public TokenBuffer detectLexemeErrors(String code) {
+        return detectLexemeErrors(code, TokenSink.QUIET);
+    }
+
+    public TokenBuffer detectLexemeErrors(String code, TokenSink sink) {
+        LexemeErrorCollector collector = new LexemeErrorCollector(sink);
+        lex(code, collector);
+        return collector.errors();
+    }
+
+    // A set of NFA states keyed by its bits, with the hash computed once so the
+    // subset construction can intern sets cheaply.
+    static final class StateSet {
+        final long[] bits;
+        final int hash;
+
+        StateSet(long[] bits) {
+            this.bits = bits;
+            this.hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StateSet && Arrays.equals(bits, ((StateSet) other).bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // The type a set of states accepts: of its final states, the one whose type
+    // comes first in TokenType, as in the DFA.
+    TokenType acceptingType(long[] stateSet) {
+        TokenType best = null;
+        for (int word = 0; word < stateSet.length; word++) {
+            long bits = stateSet[word] & finalBits[word];
+            while (bits != 0) {
+                int state = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                TokenType type = finalStateTypes[state];
+                if (type != null && (best == null || type.ordinal() < best.ordinal())) {
+                    best = type;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Groups the DFA alphabet into classes of characters that every NFA state
+    // treats the same way, e.g. a-z for the identifier loop. The DFA then needs
+    // one column per class instead of one per character.
+    byte[] alphabetClasses() {
+        freeze();
+        List<List<Integer>> edgesBySymbol = new ArrayList<>();
+        for (int c = 0; c < DFA.ALPHABET_SIZE; c++) {
+            edgesBySymbol.add(new ArrayList<>());
+        }
+        for (int state = 0; state + 1 < rowStart.length; state++) {
+            for (int edge = rowStart[state]; edge < rowStart[state + 1]; edge++) {
+                if (symbols[edge] < DFA.ALPHABET_SIZE) {
+                    List<Integer> edges = edgesBySymbol.get(symbols[edge]);
+                    edges.add(state);
+                    edges.add(targets[edge]);
+                }
+            }
+        }
+
+        Map<List<Integer>, Integer> classIds = new HashMap<>();
+        byte[] classes = new byte[DFA.ALPHABET_SIZE];
+        for (int c = 0; c < DFA.ALPHABET_SIZE; c++) {
+            Integer id = classIds.get(edgesBySymbol.get(c));
+            if (id == null) {
+                id = classIds.size();
+                classIds.put(edgesBySymbol.get(c), id);
+            }
+            classes[c] = (byte) (int) id;
+        }
+        return classes;
+    }
+
+    // A DFA built on demand while lexing instead of up front; see LazyDFA.
+    public LazyDFA lazyDFA(int capacity) {
+        return new LazyDFA(this, capacity);
+    }
+
+    public DFA convertNFAtoDFA() {
+        return convertNFAtoDFA(TokenSink.QUIET);
+    }
+
+    // Builds and minimizes the DFA, reporting its final size to sink.
+    public DFA convertNFAtoDFA(TokenSink sink) {
+        freeze();
+        byte[] classes = alphabetClasses();
+        int classCount = 0;
+        for (byte id : classes) {
+            classCount = Math.max(classCount, (id & 0xFF) + 1);
+        }
+        // Moves are computed for one character per class; the rest behave the same.
+        int[] representative = new int[classCount];
+        Arrays.fill(representative, -1);
+        for (int c = DFA.ALPHABET_SIZE - 1; c >= 0; c--) {
+            representative[classes[c] & 0xFF] = c;
+        }
+
+        Map<StateSet, Integer> dfaStates = new HashMap<>();
+        List<StateSet> worklist = new ArrayList<>();
+        int[] dfaTransitions = new int[16 * classCount];
+        TokenType[] dfaFinalStates = new TokenType[16];
+
+        long[] startSet = new long[current.length];
+        startSet[startState >>> 6] |= 1L << startState;
+        closeOver(startSet);
+        dfaStates.put(new StateSet(startSet), 0);
+        worklist.add(new StateSet(startSet));
+        dfaFinalStates[0] = acceptingType(startSet);
+
+        long[][] moves = new long[classCount][current.length];
+
+        // Every DFA state is appended to the worklist once, so walking it by index
+        // visits each state exactly once.
+        for (int dfaState = 0; dfaState < worklist.size(); dfaState++) {
+            long[] currentSet = worklist.get(dfaState).bits;
+            for (long[] move : moves) {
+                Arrays.fill(move, 0);
+            }
+
+            for (int word = 0; word < currentSet.length; word++) {
+                long bits = currentSet[word];
+                while (bits != 0) {
+                    int state = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    for (int edge = rowStart[state]; edge < rowStart[state + 1]; edge++) {
+                        char symbol = symbols[edge];
+                        if (symbol >= DFA.ALPHABET_SIZE || representative[classes[symbol] & 0xFF] != symbol) continue;
+
+                        long[] move = moves[classes[symbol] & 0xFF];
+                        move[targets[edge] >>> 6] |= 1L << targets[edge];
+                    }
+                }
+            }
+
+            for (int column = 0; column < classCount; column++) {
+                long[] move = moves[column];
+                int target = -1;
+                if (!isEmpty(move)) {
+                    closeOver(move);
+                    StateSet nextStateSet = new StateSet(move.clone());
+                    Integer known = dfaStates.get(nextStateSet);
+                    if (known == null) {
+                        known = worklist.size();
+                        dfaStates.put(nextStateSet, known);
+                        worklist.add(nextStateSet);
+                        if (known == dfaFinalStates.length) {
+                            dfaFinalStates = Arrays.copyOf(dfaFinalStates, known * 2);
+                            dfaTransitions = Arrays.copyOf(dfaTransitions, known * 2 * classCount);
+                        }
+                        dfaFinalStates[known] = acceptingType(move);
+                    }
+                    target = known;
+                }
+                dfaTransitions[dfaState * classCount + column] = target;
+            }
+        }
+
+        int stateCount = worklist.size();
+        dfa = minimizeDFA(Arrays.copyOf(dfaTransitions, stateCount * classCount),
+                Arrays.copyOf(dfaFinalStates, stateCount), classes, classCount);
+        sink.dfa(dfa.stateCount());
+        return dfa;
+    }
+
+    private static boolean isEmpty(long[] set) {
+        for (long word : set) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    
+    private static int moveOrDead(int[] dfaTransitions, int state, int column, int classCount, int dead) {
+        if (state == dead) {
+            return dead;
+        }
+        int target = dfaTransitions[state * classCount + column];
+        return target < 0 ? dead : target;
+    }
+
+    // Hopcroft's partition refinement. Missing transitions go to an explicit
+    // dead state so every state has a move on every class; states that end up
+    // equivalent to it can never accept and are dropped again at the end.
+    private DFA minimizeDFA(int[] dfaTransitions, TokenType[] dfaFinalStates, byte[] classes, int classCount) {
+        int dfaStateCount = dfaFinalStates.length;
+        int dead = dfaStateCount;
+        int total = dfaStateCount + 1;
+
+        // Predecessors of each state, one CSR row per (class, target) pair.
+        int[] inverseStart = new int[classCount * total + 1];
+        for (int state = 0; state < total; state++) {
+            for (int column = 0; column < classCount; column++) {
+                inverseStart[column * total + moveOrDead(dfaTransitions, state, column, classCount, dead) + 1]++;
+            }
+        }
+        for (int i = 0; i < classCount * total; i++) {
+            inverseStart[i + 1] += inverseStart[i];
+        }
+        int[] inverseSources = new int[inverseStart[classCount * total]];
+        int[] fill = Arrays.copyOf(inverseStart, inverseStart.length - 1);
+        for (int state = 0; state < total; state++) {
+            for (int column = 0; column < classCount; column++) {
+                inverseSources[fill[column * total + moveOrDead(dfaTransitions, state, column, classCount, dead)]++] = state;
+            }
+        }
+
+        // Blocks are contiguous ranges of elements; location[s] is the index of s.
+        int[] elements = new int[total];
+        int[] location = new int[total];
+        int[] blockOf = new int[total];
+        int[] blockStart = new int[total];
+        int[] blockEnd = new int[total];
+        int[] marked = new int[total];
+
+        // Initial blocks: one per accepted token type, plus all non-accepting states.
+        Map<TokenType, Integer> initialBlocks = new HashMap<>();
+        int[] initialOf = new int[total];
+        for (int state = 0; state < total; state++) {
+            TokenType type = state < dfaStateCount ? dfaFinalStates[state] : null;
+            Integer block = initialBlocks.get(type);
+            if (block == null) {
+                block = initialBlocks.size();
+                initialBlocks.put(type, block);
+            }
+            initialOf[state] = block;
+        }
+        int blockCount = initialBlocks.size();
+        int[] blockSize = new int[blockCount];
+        for (int state = 0; state < total; state++) {
+            blockSize[initialOf[state]]++;
+        }
+        int position = 0;
+        for (int block = 0; block < blockCount; block++) {
+            blockStart[block] = position;
+            blockEnd[block] = position;
+            position += blockSize[block];
+        }
+        for (int state = 0; state < total; state++) {
+            int block = initialOf[state];
+            elements[blockEnd[block]] = state;
+            location[state] = blockEnd[block]++;
+            blockOf[state] = block;
+        }
+
+        boolean[] waiting = new boolean[total * classCount];
+        ArrayDeque<Integer> worklist = new ArrayDeque<>();
+        for (int block = 0; block < blockCount; block++) {
+            for (int column = 0; column < classCount; column++) {
+                waiting[block * classCount + column] = true;
+                worklist.add(block * classCount + column);
+            }
+        }
+
+        int[] splitter = new int[total];
+        int[] touched = new int[total];
+        while (!worklist.isEmpty()) {
+            int entry = worklist.poll();
+            int splitBlock = entry / classCount;
+            int column = entry % classCount;
+            waiting[entry] = false;
+
+            int splitterSize = 0;
+            for (int i = blockStart[splitBlock]; i < blockEnd[splitBlock]; i++) {
+                splitter[splitterSize++] = elements[i];
+            }
+
+            // Move every predecessor to the front of its block.
+            int touchedCount = 0;
+            for (int i = 0; i < splitterSize; i++) {
+                int row = column * total + splitter[i];
+                for (int k = inverseStart[row]; k < inverseStart[row + 1]; k++) {
+                    int state = inverseSources[k];
+                    int block = blockOf[state];
+                    int front = blockStart[block] + marked[block];
+                    if (location[state] < front) {
+                        continue;
+                    }
+                    if (marked[block] == 0) {
+                        touched[touchedCount++] = block;
+                    }
+                    int other = elements[front];
+                    elements[front] = state;
+                    elements[location[state]] = other;
+                    location[other] = location[state];
+                    location[state] = front;
+                    marked[block]++;
+                }
+            }
+
+            for (int t = 0; t < touchedCount; t++) {
+                int block = touched[t];
+                int markedCount = marked[block];
+                marked[block] = 0;
+                if (markedCount == blockEnd[block] - blockStart[block]) {
+                    continue;
+                }
+
+                int created = blockCount++;
+                blockStart[created] = blockStart[block];
+                blockEnd[created] = blockStart[block] + markedCount;
+                blockStart[block] = blockEnd[created];
+                for (int i = blockStart[created]; i < blockEnd[created]; i++) {
+                    blockOf[elements[i]] = created;
+                }
+
+                int createdSize = blockEnd[created] - blockStart[created];
+                int remainingSize = blockEnd[block] - blockStart[block];
+                for (int c = 0; c < classCount; c++) {
+                    if (waiting[block * classCount + c]) {
+                        waiting[created * classCount + c] = true;
+                        worklist.add(created * classCount + c);
+                    } else {
+                        int smaller = createdSize <= remainingSize ? created : block;
+                        waiting[smaller * classCount + c] = true;
+                        worklist.add(smaller * classCount + c);
+                    }
+                }
+            }
+        }
+
+        // Number the blocks in order of their lowest original state so the start
+        // state stays 0, leaving out the block of the dead state.
+        int deadBlock = blockOf[dead];
+        int[] blockMapping = new int[blockCount];
+        Arrays.fill(blockMapping, -1);
+        int newStateCounter = 0;
+        for (int state = 0; state < dfaStateCount; state++) {
+            int block = blockOf[state];
+            if (blockMapping[block] < 0 && (block != deadBlock || state == 0)) {
+                blockMapping[block] = newStateCounter++;
+            }
+        }
+        int[] stateMapping = new int[dfaStateCount];
+        for (int state = 0; state < dfaStateCount; state++) {
+            stateMapping[state] = blockMapping[blockOf[state]];
+        }
+        // Only the start state can share a block with the dead state, when nothing is accepted.
+        boolean startIsDead = blockOf[0] == deadBlock;
+
+        int[] table = new int[newStateCounter * classCount];
+        TokenType[] accepting = new TokenType[newStateCounter];
+
+        for (int originalState = 0; originalState < dfaStateCount; originalState++) {
+            int newState = stateMapping[originalState];
+            if (newState < 0) {
+                continue;
+            }
+            for (int column = 0; column < classCount; column++) {
+                int target = dfaTransitions[originalState * classCount + column];
+                boolean toDead = target < 0 || blockOf[target] == deadBlock;
+                table[newState * classCount + column] = toDead || startIsDead ? -1 : stateMapping[target];
+            }
+            accepting[newState] = dfaFinalStates[originalState];
+        }
+
+        return new DFA(table, accepting, classes, classCount);
+    }
+
+    
+
 }
\ No newline at end of file
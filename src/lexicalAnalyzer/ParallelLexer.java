@@ -0,0 +1,234 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Splits a file into line-aligned chunks and lexes them in parallel. Every chunk
+// is first lexed on the guess that it does not start inside a block comment;
+// chunks whose guess turns out wrong are lexed again from the real state, so the
+// tokens and line numbers come out exactly as a sequential MappedLexer run.
+// The automaton is shared by the threads, so it must not change as it runs:
+// a DFA or Utf8DFA, not a LazyDFA or a metered one.
+class ParallelLexer {
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    private final Automaton dfa;
+    private final ForkJoinPool pool;
+    private final long minChunkSize;
+
+    public ParallelLexer(Automaton dfa, ForkJoinPool pool) {
+        this(dfa, pool, MIN_CHUNK_SIZE);
+    }
+
+    // Smaller chunks let tests cross chunk boundaries on small files.
+    ParallelLexer(Automaton dfa, ForkJoinPool pool, long minChunkSize) {
+        this.dfa = dfa;
+        this.pool = pool;
+        this.minChunkSize = minChunkSize;
+    }
+
+    // Tokens of the whole file in order, with byte offsets and absolute lines.
+    // The file is closed on return, so the buffer carries no text source.
+    public TokenBuffer lex(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return lex(channel, new LineIndex(0, 0, 1));
+        }
+    }
+
+    // Lexes the file in parallel, then hands every token to each consumer in
+    // turn, as drainTo() on a MappedLexer over the file would.
+    public void drainTo(Path file, TokenConsumer... consumers) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            LineIndex lines = new LineIndex(0, 0, 1);
+            TokenBuffer tokens = lex(channel, lines);
+            new Replay(tokens, lines, channel).drainTo(consumers);
+        }
+    }
+
+    // Fills lines, which must be empty, with the lines of the whole file.
+    private TokenBuffer lex(FileChannel channel, LineIndex lines) throws IOException {
+        long[] bounds = chunkBounds(channel, pool.getParallelism());
+        int chunkCount = bounds.length - 1;
+
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            long from = bounds[i];
+            long to = bounds[i + 1];
+            tasks.add(pool.submit(() -> lexChunk(channel, from, to, false)));
+        }
+
+        TokenBuffer result = new TokenBuffer();
+        boolean inComment = false;
+        for (int i = 0; i < chunkCount; i++) {
+            Chunk chunk = join(tasks.get(i));
+            if (chunk.startsInComment != inComment) {
+                chunk = lexChunk(channel, bounds[i], bounds[i + 1], inComment);
+            }
+            TokenBuffer tokens = chunk.tokens;
+            for (int t = 0; t < tokens.size(); t++) {
+                result.add(tokens.type(t), tokens.start(t), tokens.length(t));
+            }
+            inComment = chunk.endsInComment;
+            lines.append(chunk.lines);
+        }
+        result.lines(lines);
+        return result;
+    }
+
+    private static Chunk join(ForkJoinTask<Chunk> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Chunk starts are moved forward to just after a newline. No token spans a
+    // newline and a line comment always ends at one, so the only state that can
+    // cross a chunk boundary is an open block comment.
+    private long[] chunkBounds(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(minChunkSize, size / parallelism + 1);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long candidate = chunkSize;
+        while (candidate < size) {
+            long boundary = -1;
+            long offset = candidate;
+            while (boundary < 0 && offset < size) {
+                probe.clear();
+                int read = channel.read(probe, offset);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        boundary = offset + i + 1;
+                        break;
+                    }
+                }
+                offset += read;
+            }
+            if (boundary < 0 || boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            candidate = boundary + chunkSize;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private Chunk lexChunk(FileChannel channel, long from, long to, boolean inComment) {
+        Chunk chunk = new Chunk(inComment);
+        try (MappedLexer lexer = new MappedLexer(dfa, channel, from, to, inComment)) {
+            while (lexer.next()) {
+                chunk.tokens.token(lexer);
+            }
+            chunk.endsInComment = lexer.endsInComment();
+            chunk.lines = lexer.lines();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunk;
+    }
+
+    // The tokens of a lex() run handed out once more as a stream, with text
+    // read from the file: a mapping of it when one fits, the channel otherwise.
+    private static final class Replay implements TokenStream {
+        private final TokenBuffer tokens;
+        private final LineIndex lines;
+        private final FileChannel channel;
+        private final ByteBuffer mapping;
+        private int index = -1;
+
+        Replay(TokenBuffer tokens, LineIndex lines, FileChannel channel) throws IOException {
+            this.tokens = tokens;
+            this.lines = lines;
+            this.channel = channel;
+            long size = channel.size();
+            this.mapping = size <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+        }
+
+        @Override
+        public boolean next() {
+            if (index + 1 == tokens.size()) {
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        @Override
+        public TokenType type() {
+            return tokens.type(index);
+        }
+
+        @Override
+        public long start() {
+            return tokens.start(index);
+        }
+
+        @Override
+        public long end() {
+            return tokens.start(index) + tokens.length(index);
+        }
+
+        @Override
+        public int line(long position) {
+            return lines.line(position);
+        }
+
+        // Counted in bytes.
+        @Override
+        public int column(long position) {
+            return lines.column(position);
+        }
+
+        @Override
+        public char charAt(long position) {
+            if (mapping != null) {
+                return (char) (mapping.get((int) position) & 0xFF);
+            }
+            return TokenStream.super.charAt(position);
+        }
+
+        @Override
+        public String text(long start, int length) {
+            byte[] bytes = new byte[length];
+            if (mapping != null) {
+                mapping.get((int) start, bytes);
+            } else {
+                try {
+                    channel.read(ByteBuffer.wrap(bytes), start);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class Chunk {
+        final boolean startsInComment;
+        final TokenBuffer tokens = new TokenBuffer();
+        boolean endsInComment;
+        LineIndex lines;
+
+        Chunk(boolean startsInComment) {
+            this.startsInComment = startsInComment;
+        }
+    }
+}
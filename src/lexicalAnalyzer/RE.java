@@ -1,11 +1,18 @@
-package lexicalAnalyzer;
-import java.util.regex.*;
-
-public class RE {
-    
-    public static final String IDENTIFIER_REGEX = "^[a-z]+$";
-    public static final String NUMBER_REGEX = "^?\\d+(\\.\\d{1,5})?$";
-    public static final String KEYWORD_REGEX = "^(for|if|else|return|void|main|int|bool|float|char)$";
-    public static final String OPERATOR_REGEX = "^[+\\-*/%=]$";
-    public static final String PUNCTUATOR_REGEX = "^[,;{}\\[\\]()]$";
-}
+package lexicalAnalyzer;
+import java.util.regex.*;
+
+public class RE {
+    
+    public static final String IDENTIFIER_REGEX = "^[a-z]+$";
+    public static final String NUMBER_REGEX = "^?\\d+(\\.\\d{1,5})?$";
+    public static final String KEYWORD_REGEX = "^(for|if|else|return|void|main|int|bool|float|char)$";
+    public static final String OPERATOR_REGEX = "^[+\\-*/%=]$";
+    public static final String PUNCTUATOR_REGEX = "^[,;{}\\[\\]()]$";
+    // A line comment, or a block comment up to its first "*/" or, left open, to
+    // the end of the input. The lexers skip these instead of returning them.
+    public static final String COMMENT_REGEX = "^(//[^\\n]*|/\\*([^*]|\\*+[^*/])*(\\*+/?)?)$";
+    // Anything up to whitespace, a delimiter or the start of a comment; lowest
+    // priority, so it only wins when no other class matches the whole lexeme.
+    // A '/' only counts when another char follows that does not open a comment.
+    public static final String UNRECOGNIZED_REGEX = "^([^\\s{}()=;,/]|/[^\\s{}()=;,/*])+$";
+}
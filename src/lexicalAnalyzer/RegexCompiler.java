@@ -0,0 +1,358 @@
+package lexicalAnalyzer;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// Thompson construction for the patterns in RE. Supports literals, escapes
+// (\d \s \w and escaped metacharacters), '.', character classes with ranges and
+// negation, groups, alternation, *, +, ? and {m}, {m,}, {m,n}. Anchors ^ and $
+// match the empty string, since every pattern is matched against a whole lexeme.
+class RegexCompiler {
+    private static final Map<String, Program> cache = new ConcurrentHashMap<>();
+
+    // A compiled pattern: states 0 until stateCount, edges labelled with a
+    // DFA alphabet symbol or NFA.EPSILON, one start and one accepting state.
+    static final class Program {
+        final int stateCount;
+        final int start;
+        final int accept;
+        final int[] from;
+        final int[] to;
+        final char[] symbol;
+
+        Program(int stateCount, int start, int accept, int[] from, int[] to, char[] symbol) {
+            this.stateCount = stateCount;
+            this.start = start;
+            this.accept = accept;
+            this.from = from;
+            this.to = to;
+            this.symbol = symbol;
+        }
+
+        int edgeCount() {
+            return from.length;
+        }
+    }
+
+    public static Program compile(String pattern) {
+        return cache.computeIfAbsent(pattern, p -> new RegexCompiler(p).compile());
+    }
+
+    private final String pattern;
+    private int pos;
+    private int stateCount;
+    private int[] from = new int[64];
+    private int[] to = new int[64];
+    private char[] symbol = new char[64];
+    private int edgeCount;
+
+    private RegexCompiler(String pattern) {
+        this.pattern = pattern;
+    }
+
+    private Program compile() {
+        Node root = parseAlternation();
+        if (pos < pattern.length()) {
+            throw error("Unexpected '" + pattern.charAt(pos) + "'");
+        }
+        int[] fragment = emit(root);
+        return new Program(stateCount, fragment[0], fragment[1],
+                Arrays.copyOf(from, edgeCount), Arrays.copyOf(to, edgeCount), Arrays.copyOf(symbol, edgeCount));
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at index " + pos + " in regex: " + pattern);
+    }
+
+    // --- Parsing ---
+
+    private static final int SET = 0;
+    private static final int EMPTY = 1;
+    private static final int CONCAT = 2;
+    private static final int ALTERNATION = 3;
+    private static final int REPEAT = 4;
+
+    private static final class Node {
+        final int kind;
+        final boolean[] set;
+        final List<Node> children;
+        final int min;
+        final int max; // -1 for unbounded
+
+        Node(int kind, boolean[] set, List<Node> children, int min, int max) {
+            this.kind = kind;
+            this.set = set;
+            this.children = children;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    private Node parseAlternation() {
+        List<Node> options = new ArrayList<>();
+        options.add(parseConcatenation());
+        while (pos < pattern.length() && pattern.charAt(pos) == '|') {
+            pos++;
+            options.add(parseConcatenation());
+        }
+        return options.size() == 1 ? options.get(0) : new Node(ALTERNATION, null, options, 0, 0);
+    }
+
+    private Node parseConcatenation() {
+        List<Node> parts = new ArrayList<>();
+        while (pos < pattern.length() && pattern.charAt(pos) != '|' && pattern.charAt(pos) != ')') {
+            parts.add(parseRepeat());
+        }
+        if (parts.isEmpty()) {
+            return new Node(EMPTY, null, null, 0, 0);
+        }
+        return parts.size() == 1 ? parts.get(0) : new Node(CONCAT, null, parts, 0, 0);
+    }
+
+    private Node parseRepeat() {
+        Node node = parseAtom();
+        while (pos < pattern.length()) {
+            char c = pattern.charAt(pos);
+            if (c == '*') {
+                node = new Node(REPEAT, null, List.of(node), 0, -1);
+            } else if (c == '+') {
+                node = new Node(REPEAT, null, List.of(node), 1, -1);
+            } else if (c == '?') {
+                node = new Node(REPEAT, null, List.of(node), 0, 1);
+            } else if (c == '{') {
+                pos++;
+                int min = parseNumber();
+                int max = min;
+                if (pos < pattern.length() && pattern.charAt(pos) == ',') {
+                    pos++;
+                    max = pos < pattern.length() && pattern.charAt(pos) == '}' ? -1 : parseNumber();
+                }
+                if (pos >= pattern.length() || pattern.charAt(pos) != '}') {
+                    throw error("Expected '}'");
+                }
+                if (max >= 0 && max < min) {
+                    throw error("Bad repetition bounds");
+                }
+                node = new Node(REPEAT, null, List.of(node), min, max);
+            } else {
+                break;
+            }
+            pos++;
+        }
+        return node;
+    }
+
+    private int parseNumber() {
+        int start = pos;
+        while (pos < pattern.length() && Character.isDigit(pattern.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Expected a number");
+        }
+        return Integer.parseInt(pattern.substring(start, pos));
+    }
+
+    private Node parseAtom() {
+        char c = pattern.charAt(pos++);
+        switch (c) {
+            case '(':
+                if (pattern.startsWith("?:", pos)) {
+                    pos += 2;
+                }
+                Node inner = parseAlternation();
+                if (pos >= pattern.length() || pattern.charAt(pos) != ')') {
+                    throw error("Expected ')'");
+                }
+                pos++;
+                return inner;
+            case '[':
+                return new Node(SET, parseClass(), null, 0, 0);
+            case '\\':
+                return new Node(SET, parseEscape(), null, 0, 0);
+            case '.':
+                boolean[] any = new boolean[DFA.ALPHABET_SIZE];
+                Arrays.fill(any, true);
+                any['\n'] = false;
+                return new Node(SET, any, null, 0, 0);
+            case '^':
+            case '$':
+                return new Node(EMPTY, null, null, 0, 0);
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                pos--;
+                throw error("Nothing to repeat");
+            default:
+                return new Node(SET, single(c), null, 0, 0);
+        }
+    }
+
+    private boolean[] parseClass() {
+        boolean negate = pos < pattern.length() && pattern.charAt(pos) == '^';
+        if (negate) {
+            pos++;
+        }
+        boolean[] set = new boolean[DFA.ALPHABET_SIZE];
+        boolean first = true;
+        while (pos < pattern.length() && (pattern.charAt(pos) != ']' || first)) {
+            first = false;
+            char c = pattern.charAt(pos++);
+            if (c == '\\') {
+                boolean[] escaped = parseEscape();
+                for (int i = 0; i < set.length; i++) {
+                    set[i] |= escaped[i];
+                }
+                continue;
+            }
+            if (pos + 1 < pattern.length() && pattern.charAt(pos) == '-' && pattern.charAt(pos + 1) != ']') {
+                char end = pattern.charAt(pos + 1);
+                pos += 2;
+                if (end < c) {
+                    throw error("Bad range " + c + "-" + end);
+                }
+                for (int i = c; i <= end; i++) {
+                    set[symbolOf((char) i)] = true;
+                }
+            } else {
+                set[symbolOf(c)] = true;
+            }
+        }
+        if (pos >= pattern.length()) {
+            throw error("Expected ']'");
+        }
+        pos++;
+        if (negate) {
+            for (int i = 0; i < set.length; i++) {
+                set[i] = !set[i];
+            }
+        }
+        return set;
+    }
+
+    private boolean[] parseEscape() {
+        if (pos >= pattern.length()) {
+            throw error("Dangling '\\'");
+        }
+        char c = pattern.charAt(pos++);
+        boolean[] set = new boolean[DFA.ALPHABET_SIZE];
+        switch (c) {
+            case 'd':
+                for (char d = '0'; d <= '9'; d++) set[d] = true;
+                return set;
+            case 's':
+                for (char s = 0; s < DFA.OTHER; s++) set[s] = Lexer.isWhitespace(s);
+                return set;
+            case 'w':
+                for (char w = 0; w < DFA.OTHER; w++) set[w] = Character.isLetterOrDigit(w) || w == '_';
+                return set;
+            case 'n':
+                return single('\n');
+            case 't':
+                return single('\t');
+            case 'r':
+                return single('\r');
+            default:
+                return single(c);
+        }
+    }
+
+    // Characters outside ASCII all share the DFA's OTHER symbol.
+    private static char symbolOf(char c) {
+        return c < DFA.OTHER ? c : DFA.OTHER;
+    }
+
+    private static boolean[] single(char c) {
+        boolean[] set = new boolean[DFA.ALPHABET_SIZE];
+        set[symbolOf(c)] = true;
+        return set;
+    }
+
+    // --- Thompson construction: every fragment is {start, accept} ---
+
+    private int newState() {
+        return stateCount++;
+    }
+
+    private void edge(int fromState, int toState, char label) {
+        if (edgeCount == from.length) {
+            from = Arrays.copyOf(from, edgeCount * 2);
+            to = Arrays.copyOf(to, edgeCount * 2);
+            symbol = Arrays.copyOf(symbol, edgeCount * 2);
+        }
+        from[edgeCount] = fromState;
+        to[edgeCount] = toState;
+        symbol[edgeCount] = label;
+        edgeCount++;
+    }
+
+    private int[] emit(Node node) {
+        int start;
+        int accept;
+        switch (node.kind) {
+            case SET:
+                start = newState();
+                accept = newState();
+                for (int c = 0; c < node.set.length; c++) {
+                    if (node.set[c]) {
+                        edge(start, accept, (char) c);
+                    }
+                }
+                return new int[]{start, accept};
+            case EMPTY:
+                start = newState();
+                accept = newState();
+                edge(start, accept, NFA.EPSILON);
+                return new int[]{start, accept};
+            case CONCAT:
+                int[] first = emit(node.children.get(0));
+                int[] last = first;
+                for (int i = 1; i < node.children.size(); i++) {
+                    int[] part = emit(node.children.get(i));
+                    edge(last[1], part[0], NFA.EPSILON);
+                    last = part;
+                }
+                return new int[]{first[0], last[1]};
+            case ALTERNATION:
+                start = newState();
+                accept = newState();
+                for (Node option : node.children) {
+                    int[] fragment = emit(option);
+                    edge(start, fragment[0], NFA.EPSILON);
+                    edge(fragment[1], accept, NFA.EPSILON);
+                }
+                return new int[]{start, accept};
+            default:
+                return emitRepeat(node.children.get(0), node.min, node.max);
+        }
+    }
+
+    // Bounded repeats are unrolled: min required copies, then either a starred
+    // copy (unbounded) or max - min optional copies.
+    private int[] emitRepeat(Node child, int min, int max) {
+        int start = newState();
+        int current = start;
+        for (int i = 0; i < min; i++) {
+            int[] copy = emit(child);
+            edge(current, copy[0], NFA.EPSILON);
+            current = copy[1];
+        }
+        int accept = newState();
+        if (max < 0) {
+            int[] loop = emit(child);
+            edge(current, loop[0], NFA.EPSILON);
+            edge(loop[1], loop[0], NFA.EPSILON);
+            edge(loop[1], accept, NFA.EPSILON);
+        } else {
+            for (int i = min; i < max; i++) {
+                int[] copy = emit(child);
+                edge(current, copy[0], NFA.EPSILON);
+                edge(current, accept, NFA.EPSILON);
+                current = copy[1];
+            }
+        }
+        edge(current, accept, NFA.EPSILON);
+        return new int[]{start, accept};
+    }
+}
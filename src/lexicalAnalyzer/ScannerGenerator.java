@@ -0,0 +1,110 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Writes a DFA out as a standalone Java class implementing Automaton, in the
+// style of re2c/JFlex output: each state is a case of a switch whose body is a
+// binary decision tree of character range checks, so no table is consulted.
+class ScannerGenerator {
+    private final DFA dfa;
+    private final StringBuilder out = new StringBuilder();
+
+    private ScannerGenerator(DFA dfa) {
+        this.dfa = dfa;
+    }
+
+    public static String generate(DFA dfa, String className) {
+        return new ScannerGenerator(dfa).emitClass(className);
+    }
+
+    public static Path write(DFA dfa, String className, Path directory) throws IOException {
+        Path file = directory.resolve(className + ".java");
+        Files.createDirectories(directory);
+        Files.writeString(file, generate(dfa, className));
+        return file;
+    }
+
+    private String emitClass(String className) {
+        out.append("package lexicalAnalyzer;\n\n");
+        out.append("// Generated by ScannerGenerator from a ").append(dfa.stateCount()).append("-state DFA. Do not edit.\n");
+        out.append("final class ").append(className).append(" implements Automaton {\n");
+        out.append("    @Override\n");
+        out.append("    public int startState() {\n");
+        out.append("        return ").append(dfa.startState()).append(";\n");
+        out.append("    }\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public int next(int state, char c) {\n");
+        out.append("        switch (state) {\n");
+        for (int state = 0; state < dfa.stateCount(); state++) {
+            out.append("            case ").append(state).append(":\n");
+            List<int[]> ranges = ranges(state);
+            emitDecision(ranges, 0, ranges.size(), "                ");
+        }
+        out.append("            default:\n");
+        out.append("                return -1;\n");
+        out.append("        }\n");
+        out.append("    }\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public TokenType accepting(int state) {\n");
+        out.append("        switch (state) {\n");
+        for (TokenType type : TokenType.values()) {
+            boolean any = false;
+            for (int state = 0; state < dfa.stateCount(); state++) {
+                if (dfa.accepting(state) == type) {
+                    out.append("            case ").append(state).append(":\n");
+                    any = true;
+                }
+            }
+            if (any) {
+                out.append("                return TokenType.").append(type.name()).append(";\n");
+            }
+        }
+        out.append("            default:\n");
+        out.append("                return null;\n");
+        out.append("        }\n");
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    // Splits the char range of one state into {low, high, target} runs. Every
+    // character from OTHER upwards shares OTHER's target.
+    private List<int[]> ranges(int state) {
+        List<int[]> ranges = new ArrayList<>();
+        for (int c = 0; c < DFA.ALPHABET_SIZE; c++) {
+            int target = dfa.next(state, (char) c);
+            int high = c == DFA.OTHER ? Character.MAX_VALUE : c;
+            int[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[2] == target) {
+                last[1] = high;
+            } else {
+                ranges.add(new int[]{c, high, target});
+            }
+        }
+        return ranges;
+    }
+
+    private void emitDecision(List<int[]> ranges, int from, int to, String indent) {
+        if (to - from == 1) {
+            out.append(indent).append("return ").append(ranges.get(from)[2]).append(";\n");
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        out.append(indent).append("if (c < ").append(literal(ranges.get(middle)[0])).append(") {\n");
+        emitDecision(ranges, from, middle, indent + "    ");
+        out.append(indent).append("} else {\n");
+        emitDecision(ranges, middle, to, indent + "    ");
+        out.append(indent).append("}\n");
+    }
+
+    private static String literal(int c) {
+        if (c > ' ' && c < 127 && c != '\'' && c != '\\') {
+            return "'" + (char) c + "'";
+        }
+        return Integer.toString(c);
+    }
+}
@@ -0,0 +1,296 @@
+package lexicalAnalyzer;
+
+import java.util.*;
+
+// Declared variables with their datatype, line and scope. Names are interned
+// once into a shared char pool and found through an open-addressing table,
+// hashing the chars of a token in place, so looking one up allocates nothing.
+// Scopes nest: a name resolves to its innermost visible declaration, and
+// declaring it twice in one scope is recorded as a duplicate.
+class SymbolTable {
+    // Interned names: chars at namePool[nameStart[n]] for nameLength[n].
+    private char[] namePool = new char[256];
+    private int poolSize;
+    private int[] nameStart = new int[16];
+    private int[] nameLength = new int[16];
+    private int[] nameHash = new int[16];
+    private String[] nameText = new String[16];
+    private int nameCount;
+    // Open addressing with linear probing; slots hold name + 1, 0 is empty.
+    private int[] slots = new int[32];
+
+    // Per name: the innermost visible declaration, and the first and last made.
+    private int[] visible = new int[16];
+    private int[] firstDeclaration = new int[16];
+    private int[] lastDeclaration = new int[16];
+
+    // Declarations in source order.
+    private int[] declName = new int[16];
+    private String[] declType = new String[16];
+    private int[] declLine = new int[16];
+    private int[] declDepth = new int[16];
+    private int[] declScope = new int[16];
+    private int[] shadowed = new int[16];
+    private int[] nextOfName = new int[16];
+    private int[] duplicateOf = new int[16];
+    private int declCount;
+    private int duplicateCount;
+
+    // Declarations visible right now, innermost last; scopeMark[d] is where
+    // scope depth d + 1 begins in it.
+    private int[] live = new int[16];
+    private int liveCount;
+    private int[] scopeMark = new int[8];
+    private int[] scopeId = new int[8];
+    private int depth;
+    private int scopeCounter;
+
+    private final TokenChars tokenChars = new TokenChars();
+
+    public void enterScope() {
+        if (depth + 1 == scopeMark.length) {
+            scopeMark = Arrays.copyOf(scopeMark, scopeMark.length * 2);
+            scopeId = Arrays.copyOf(scopeId, scopeId.length * 2);
+        }
+        scopeMark[depth] = liveCount;
+        depth++;
+        scopeId[depth] = ++scopeCounter;
+    }
+
+    // Closing the global scope is ignored, so an unbalanced '}' does no harm.
+    public void exitScope() {
+        if (depth == 0) {
+            return;
+        }
+        depth--;
+        while (liveCount > scopeMark[depth]) {
+            int declaration = live[--liveCount];
+            visible[declName[declaration]] = shadowed[declaration];
+        }
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    // Declares the current token of the stream as a variable of datatype.
+    public int declare(TokenStream stream, String datatype) {
+        tokenChars.stream = stream;
+        tokenChars.start = stream.start();
+        tokenChars.length = (int) (stream.end() - stream.start());
+        return declare(intern(tokenChars), datatype, stream.line());
+    }
+
+    public int declare(CharSequence name, String datatype, int line) {
+        return declare(intern(name), datatype, line);
+    }
+
+    private int declare(int name, String datatype, int line) {
+        if (declCount == declName.length) {
+            int capacity = declCount * 2;
+            declName = Arrays.copyOf(declName, capacity);
+            declType = Arrays.copyOf(declType, capacity);
+            declLine = Arrays.copyOf(declLine, capacity);
+            declDepth = Arrays.copyOf(declDepth, capacity);
+            declScope = Arrays.copyOf(declScope, capacity);
+            shadowed = Arrays.copyOf(shadowed, capacity);
+            nextOfName = Arrays.copyOf(nextOfName, capacity);
+            duplicateOf = Arrays.copyOf(duplicateOf, capacity);
+        }
+        int declaration = declCount++;
+        int previous = visible[name];
+        declName[declaration] = name;
+        declType[declaration] = datatype;
+        declLine[declaration] = line;
+        declDepth[declaration] = depth;
+        declScope[declaration] = scopeId[depth];
+        shadowed[declaration] = previous;
+        nextOfName[declaration] = -1;
+        duplicateOf[declaration] = previous >= 0 && declScope[previous] == scopeId[depth] ? previous : -1;
+        if (duplicateOf[declaration] >= 0) {
+            duplicateCount++;
+        }
+
+        if (firstDeclaration[name] < 0) {
+            firstDeclaration[name] = declaration;
+        } else {
+            nextOfName[lastDeclaration[name]] = declaration;
+        }
+        lastDeclaration[name] = declaration;
+
+        visible[name] = declaration;
+        if (liveCount == live.length) {
+            live = Arrays.copyOf(live, liveCount * 2);
+        }
+        live[liveCount++] = declaration;
+        return declaration;
+    }
+
+    // Innermost declaration of name visible in the current scope, or -1.
+    public int lookup(CharSequence name) {
+        int id = find(name);
+        return id < 0 ? -1 : visible[id];
+    }
+
+    // First declaration of name in source order, or -1; nextDeclaration walks the rest.
+    public int firstDeclaration(CharSequence name) {
+        int id = find(name);
+        return id < 0 ? -1 : firstDeclaration[id];
+    }
+
+    public int nextDeclaration(int declaration) {
+        return nextOfName[declaration];
+    }
+
+    public int size() {
+        return declCount;
+    }
+
+    public String name(int declaration) {
+        int id = declName[declaration];
+        if (nameText[id] == null) {
+            nameText[id] = new String(namePool, nameStart[id], nameLength[id]);
+        }
+        return nameText[id];
+    }
+
+    public String datatype(int declaration) {
+        return declType[declaration];
+    }
+
+    public int line(int declaration) {
+        return declLine[declaration];
+    }
+
+    // 0 for globals, one more for every enclosing scope.
+    public int depth(int declaration) {
+        return declDepth[declaration];
+    }
+
+    // The earlier declaration of the same name in the same scope, or -1.
+    public int duplicateOf(int declaration) {
+        return duplicateOf[declaration];
+    }
+
+    public int duplicateCount() {
+        return duplicateCount;
+    }
+
+    // --- Interning ---
+
+    private static int hash(CharSequence chars) {
+        int h = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            h = 31 * h + chars.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private boolean matches(int id, CharSequence chars) {
+        if (nameLength[id] != chars.length()) {
+            return false;
+        }
+        int start = nameStart[id];
+        for (int i = 0; i < chars.length(); i++) {
+            if (namePool[start + i] != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int find(CharSequence chars) {
+        int h = hash(chars);
+        int mask = slots.length - 1;
+        for (int slot = h & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (nameHash[id] == h && matches(id, chars)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private int intern(CharSequence chars) {
+        int h = hash(chars);
+        int mask = slots.length - 1;
+        int slot = h & mask;
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (nameHash[id] == h && matches(id, chars)) {
+                return id;
+            }
+        }
+
+        if (nameCount == nameStart.length) {
+            int capacity = nameCount * 2;
+            nameStart = Arrays.copyOf(nameStart, capacity);
+            nameLength = Arrays.copyOf(nameLength, capacity);
+            nameHash = Arrays.copyOf(nameHash, capacity);
+            nameText = Arrays.copyOf(nameText, capacity);
+            visible = Arrays.copyOf(visible, capacity);
+            firstDeclaration = Arrays.copyOf(firstDeclaration, capacity);
+            lastDeclaration = Arrays.copyOf(lastDeclaration, capacity);
+        }
+        int length = chars.length();
+        if (poolSize + length > namePool.length) {
+            namePool = Arrays.copyOf(namePool, Math.max(namePool.length * 2, poolSize + length));
+        }
+        for (int i = 0; i < length; i++) {
+            namePool[poolSize + i] = chars.charAt(i);
+        }
+        int id = nameCount++;
+        nameStart[id] = poolSize;
+        nameLength[id] = length;
+        nameHash[id] = h;
+        visible[id] = -1;
+        firstDeclaration[id] = -1;
+        poolSize += length;
+
+        slots[slot] = id + 1;
+        if (nameCount * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        int[] grown = new int[slots.length * 2];
+        int mask = grown.length - 1;
+        for (int id = 0; id < nameCount; id++) {
+            int slot = nameHash[id] & mask;
+            while (grown[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id + 1;
+        }
+        slots = grown;
+    }
+
+    // The current token of a stream seen as chars, reused for every lookup.
+    private static final class TokenChars implements CharSequence {
+        TokenStream stream;
+        long start;
+        int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return stream.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return stream.text(start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return stream.text(start, length);
+        }
+    }
+}
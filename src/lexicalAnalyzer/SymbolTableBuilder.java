@@ -0,0 +1,100 @@
+package lexicalAnalyzer;
+
+// Fills a SymbolTable while the code is lexed. '{' and '}' open and close
+// scopes; a parameter list opens the scope its body then continues, so the
+// parameters of "int main(int argc) {" are local to main.
+class SymbolTableBuilder implements TokenConsumer {
+    private static final String[] DATATYPES = {"int", "float", "bool", "char"};
+
+    private final SymbolTable table = new SymbolTable();
+    private final TokenSink sink;
+    private int parenDepth;
+    private boolean parameterScope;
+
+    // Datatype of the declaration being read, or null outside one. A declaration
+    // runs until ';' or the end of its line.
+    private String datatype;
+    private int declarationLine;
+
+    public SymbolTableBuilder() {
+        this(TokenSink.QUIET);
+    }
+
+    public SymbolTableBuilder(TokenSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void token(TokenStream stream) {
+        TokenType type = stream.type();
+
+        if (datatype != null && (stream.line() != declarationLine)) {
+            datatype = null;
+        }
+
+        char punctuator = type == TokenType.PUNCTUATOR ? stream.charAt(stream.start()) : 0;
+        if (parameterScope) {
+            parameterScope = false;
+            if (punctuator == '{') {
+                return;
+            }
+            table.exitScope();
+        }
+
+        if (type == TokenType.KEYWORD) {
+            for (String keyword : DATATYPES) {
+                if (is(stream, keyword)) {
+                    datatype = keyword;
+                    declarationLine = stream.line();
+                }
+            }
+        } else if (type == TokenType.PUNCTUATOR) {
+            if (punctuator == '{') {
+                table.enterScope();
+            } else if (punctuator == '}') {
+                table.exitScope();
+            } else if (punctuator == '(') {
+                if (parenDepth++ == 0) {
+                    table.enterScope();
+                }
+            } else if (punctuator == ')' && parenDepth > 0) {
+                parameterScope = --parenDepth == 0;
+            } else if (punctuator == ';') {
+                datatype = null;
+            }
+        } else if (type == TokenType.IDENTIFIER && datatype != null) {
+            table.declare(stream, datatype);
+        }
+    }
+
+    private static boolean is(TokenStream stream, String word) {
+        if (stream.end() - stream.start() != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (stream.charAt(stream.start() + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public SymbolTable table() {
+        return table;
+    }
+
+    @Override
+    public void end() {
+        sink.beginSymbols();
+        for (int i = 0; i < table.size(); i++) {
+            sink.symbol(table, i);
+        }
+        sink.endSymbols(table.size());
+
+        for (int i = 0; i < table.size(); i++) {
+            if (table.duplicateOf(i) >= 0) {
+                sink.duplicate(table, i);
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+// The human-readable reports, laid out as they always have been, written
+// through one buffer instead of a println per row.
+class TextSink implements TokenSink {
+    private final Writer out;
+    private boolean duplicates;
+    private long fileTokens;
+    private long fileErrors;
+
+    public TextSink(OutputStream out) {
+        this(out, BUFFER_SIZE);
+    }
+
+    // In the platform charset, for a console.
+    public TextSink(OutputStream out, int bufferSize) {
+        this(out, Charset.defaultCharset(), bufferSize);
+    }
+
+    public TextSink(OutputStream out, Charset charset, int bufferSize) {
+        this(new OutputStreamWriter(out, charset), bufferSize);
+    }
+
+    public TextSink(Writer out) {
+        this(out, BUFFER_SIZE);
+    }
+
+    public TextSink(Writer out, int bufferSize) {
+        this.out = new BufferedWriter(out, bufferSize);
+    }
+
+    @Override
+    public void nfa(String name, int stateCount, int startState, BitSet finalStates) {
+        write("\n==============================\n");
+        write("  NFA for: " + name + "\n");
+        write("==============================\n");
+        write("Total States: " + stateCount + "\n");
+        write("Start State: " + startState + "\n");
+        write("Final States: " + finalStates.stream().boxed().toList() + "\n");
+        write("------------------------------\n");
+        write("Transitions:\n");
+    }
+
+    @Override
+    public void transition(int state, char symbol, int[] targets, int from, int to) {
+        write("  State ");
+        write(Integer.toString(state));
+        write(" --(");
+        write(printable(symbol));
+        write(")--> [");
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                write(", ");
+            }
+            write(Integer.toString(targets[i]));
+        }
+        write("]\n");
+    }
+
+    @Override
+    public void endNfa() {
+        write("==============================\n\n");
+    }
+
+    @Override
+    public void dfa(int stateCount) {
+        write("\n==============================\n");
+        write("        DFA Minimization       \n");
+        write("==============================\n");
+        write("\nAfter Minimization:\n");
+        write("Total DFA States: " + stateCount + "\n");
+        write("==============================\n\n");
+    }
+
+    @Override
+    public void beginErrors() {
+        write("\nLexeme Errors:\n");
+        write("==========================================\n");
+        row("Line No", 10, "Unidentified Token", 15, "Reason", 20);
+        write("------------------------------------------\n");
+    }
+
+    @Override
+    public void error(TokenBuffer errors, int index) {
+        row(Integer.toString(errors.line(index)), 10, errors.text(index), 15, UNRECOGNIZED_REASON, 20);
+    }
+
+    @Override
+    public void endErrors(int count) {
+        if (count == 0) {
+            write("No lexeme errors found.\n");
+        }
+        write("==========================================\n");
+    }
+
+    @Override
+    public void beginTokens() {
+        write("\nTokenized Code:\n");
+        write("==============================\n");
+    }
+
+    @Override
+    public void token(TokenBuffer tokens, int index) {
+        write("Token: ");
+        write(tokens.text(index));
+        write(", Type: ");
+        write(tokens.type(index).toString());
+        write("\n");
+    }
+
+    @Override
+    public void endTokens(int count) {
+        write("==============================\n");
+        write("Total Number of Tokens: " + count + "\n");
+    }
+
+    @Override
+    public void beginSymbols() {
+        duplicates = false;
+        write("\nSymbol Table:\n");
+        write("==========================================\n");
+        row("Identifier", 15, "Datatype", 10, "Scope", 10);
+        write("------------------------------------------\n");
+    }
+
+    @Override
+    public void symbol(SymbolTable table, int declaration) {
+        row(table.name(declaration), 15, table.datatype(declaration), 10, scope(table, declaration), 10);
+    }
+
+    @Override
+    public void endSymbols(int count) {
+        if (count == 0) {
+            write("No variables found.\n");
+        }
+        write("==========================================\n");
+    }
+
+    @Override
+    public void duplicate(SymbolTable table, int declaration) {
+        if (!duplicates) {
+            duplicates = true;
+            write("Duplicate declarations:\n");
+        }
+        write("  " + table.name(declaration) + " on line " + table.line(declaration)
+                + " (first declared on line " + table.line(table.duplicateOf(declaration)) + ")\n");
+    }
+
+    @Override
+    public void beginFiles() {
+        fileTokens = 0;
+        fileErrors = 0;
+        write("\nBatch Results:\n");
+        write("==========================================\n");
+        write(String.format("%-40s %10s %10s %10s%n", "File", "Tokens", "Errors", "Symbols"));
+        write("------------------------------------------\n");
+    }
+
+    @Override
+    public void file(BatchLexer.FileResult result) {
+        if (result.failure != null) {
+            write(String.format("%-40s failed: %s%n", result.file, result.failureMessage()));
+            return;
+        }
+        LexerMetrics metrics = result.metrics;
+        write(String.format("%-40s %10d %10d %10d%n", result.file, metrics.tokens(), metrics.errors(), result.symbols.size()));
+        fileTokens += metrics.tokens();
+        fileErrors += metrics.errors();
+    }
+
+    @Override
+    public void endFiles(int count) {
+        write("==========================================\n");
+        write("Total Number of Files: " + count + "\n");
+        write("Total Number of Tokens: " + fileTokens + "\n");
+        write("Total Number of Errors: " + fileErrors + "\n");
+    }
+
+    @Override
+    public void metrics(LexerMetrics metrics) {
+        write("\nLexer Metrics:\n");
+        write("==========================================\n");
+        write("Bytes: " + metrics.bytes() + "\n");
+        write("Tokens: " + metrics.tokens() + "\n");
+        for (TokenType type : TokenType.values()) {
+            if (type == TokenType.COMMENT) {
+                continue;
+            }
+            write(String.format("  %-13s %12d%n", type, metrics.tokens(type)));
+        }
+        write("Errors: " + metrics.errors() + "\n");
+        for (LexerMetrics.Phase phase : LexerMetrics.Phase.values()) {
+            write(String.format("%-14s %12.3f ms%n", phase + ":", metrics.nanos(phase) / 1e6));
+        }
+        write(String.format("Throughput: %.0f tokens/s, %.0f bytes/s%n", metrics.tokensPerSecond(), metrics.bytesPerSecond()));
+        write("------------------------------------------\n");
+        write("Token Lengths:\n");
+        long[] lengths = metrics.lengthHistogram();
+        for (int bucket = 0; bucket < lengths.length; bucket++) {
+            if (lengths[bucket] > 0) {
+                write(String.format("  %-13s %12d%n", lengthRange(bucket), lengths[bucket]));
+            }
+        }
+        long[] visits = metrics.stateVisits();
+        if (visits.length > 0) {
+            write("------------------------------------------\n");
+            write("DFA State Visits:\n");
+            for (int state = 0; state < visits.length; state++) {
+                if (visits[state] > 0) {
+                    write(String.format("  State %-7d %12d%n", state, visits[state]));
+                }
+            }
+        }
+        write("==========================================\n");
+    }
+
+    static String lengthRange(int bucket) {
+        int first = LexerMetrics.bucketStart(bucket);
+        if (bucket == LexerMetrics.LENGTH_BUCKETS - 1) {
+            return first + "+";
+        }
+        int last = LexerMetrics.bucketStart(bucket + 1) - 1;
+        return first == last ? Integer.toString(first) : first + "-" + last;
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String scope(SymbolTable table, int declaration) {
+        return table.depth(declaration) > 0 ? "Local" : "Global";
+    }
+
+    // Control and non-ASCII symbols are shown as \\uXXXX escapes.
+    static String printable(char symbol) {
+        if (symbol == NFA.EPSILON || (symbol > ' ' && symbol < 127)) {
+            return String.valueOf(symbol);
+        }
+        return String.format("\\u%04x", (int) symbol);
+    }
+
+    // Three left-aligned columns separated by a space, as printf("%-Ns %-Ns %-Ns").
+    private void row(String first, int firstWidth, String second, int secondWidth, String third, int thirdWidth) {
+        column(first, firstWidth);
+        write(" ");
+        column(second, secondWidth);
+        write(" ");
+        column(third, thirdWidth);
+        write("\n");
+    }
+
+    private void column(String text, int width) {
+        write(text);
+        for (int i = text.length(); i < width; i++) {
+            write(" ");
+        }
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
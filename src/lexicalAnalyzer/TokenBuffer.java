@@ -0,0 +1,152 @@
+package lexicalAnalyzer;
+
+import java.util.*;
+
+// Tokens stored as parallel primitive arrays: one byte of type and two ints
+// (offset, length) per token. Arrays grow a block at a time, so adding a
+// token never copies the tokens already stored, except while the first block
+// doubles up to full size: a short document does not pay for a whole block.
+// Text is only built by text(i), and lines are only looked up by line(i),
+// except from a stream that does not retain its text: then token() copies
+// the text, line and column of each token while the stream still has them.
+class TokenBuffer implements TokenConsumer {
+    private static final int BLOCK_SHIFT = 12;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final int FIRST_BLOCK_SIZE = 64;
+
+    private byte[][] types = new byte[8][];
+    private int[][] offsets = new int[8][];
+    private int[][] lengths = new int[8][];
+    // Absolute position of each block's first token; offsets are relative to it.
+    private long[] blockBase = new long[8];
+    private int size;
+    private TokenStream source;
+    private LineIndex lines;
+    private Copies copies;
+
+    // Records every token of the stream, which also becomes the source of
+    // text(i) and line(i) if it retains its text.
+    @Override
+    public void token(TokenStream stream) {
+        if (stream.retainsText()) {
+            source = stream;
+        } else {
+            if (copies == null) {
+                copies = new Copies();
+            }
+            copies.add(size, stream);
+        }
+        add(stream.type(), stream.start(), (int) (stream.end() - stream.start()));
+    }
+
+    // The text of every copied token end to end, and where each one starts in
+    // it, its line and its column.
+    private static final class Copies {
+        final StringBuilder text = new StringBuilder();
+        int[] textStarts = new int[FIRST_BLOCK_SIZE];
+        int[] lines = new int[FIRST_BLOCK_SIZE];
+        int[] columns = new int[FIRST_BLOCK_SIZE];
+
+        void add(int index, TokenStream stream) {
+            if (index == lines.length) {
+                textStarts = Arrays.copyOf(textStarts, index * 2);
+                lines = Arrays.copyOf(lines, index * 2);
+                columns = Arrays.copyOf(columns, index * 2);
+            }
+            textStarts[index] = text.length();
+            lines[index] = stream.line();
+            columns[index] = stream.column();
+            text.append(stream.text());
+        }
+    }
+
+    public void add(TokenType type, long start, int length) {
+        int block = size >>> BLOCK_SHIFT;
+        int slot = size & BLOCK_MASK;
+        if (slot == 0) {
+            if (block == types.length) {
+                int capacity = block * 2;
+                types = Arrays.copyOf(types, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                blockBase = Arrays.copyOf(blockBase, capacity);
+            }
+            int capacity = block == 0 ? FIRST_BLOCK_SIZE : BLOCK_SIZE;
+            types[block] = new byte[capacity];
+            offsets[block] = new int[capacity];
+            lengths[block] = new int[capacity];
+            blockBase[block] = start;
+        } else if (slot == types[block].length) {
+            types[block] = Arrays.copyOf(types[block], slot * 2);
+            offsets[block] = Arrays.copyOf(offsets[block], slot * 2);
+            lengths[block] = Arrays.copyOf(lengths[block], slot * 2);
+        }
+
+        long offset = start - blockBase[block];
+        if (offset > Integer.MAX_VALUE || offset < 0) {
+            throw new IllegalArgumentException("Token at " + start + " is out of order or too far from its block");
+        }
+        types[block][slot] = (byte) type.ordinal();
+        offsets[block][slot] = (int) offset;
+        lengths[block][slot] = length;
+        size++;
+    }
+
+    // Looks lines up in this index rather than the source's, for tokens added
+    // without a source.
+    void lines(LineIndex lines) {
+        this.lines = lines;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return TokenType.of(types[index >>> BLOCK_SHIFT][index & BLOCK_MASK]);
+    }
+
+    public long start(int index) {
+        return blockBase[index >>> BLOCK_SHIFT] + offsets[index >>> BLOCK_SHIFT][index & BLOCK_MASK];
+    }
+
+    public int length(int index) {
+        return lengths[index >>> BLOCK_SHIFT][index & BLOCK_MASK];
+    }
+
+    public int line(int index) {
+        if (copies != null) {
+            return copies.lines[index];
+        }
+        if (lines != null) {
+            return lines.line(start(index));
+        }
+        if (source == null) {
+            throw new IllegalStateException("Token lines are not available without a source");
+        }
+        return source.line(start(index));
+    }
+
+    // Resolved through the source's line index, so only for a buffer filled from one stream.
+    public int column(int index) {
+        if (copies != null) {
+            return copies.columns[index];
+        }
+        if (source == null) {
+            throw new IllegalStateException("Token columns are not available without a source");
+        }
+        return source.column(start(index));
+    }
+
+    public String text(int index) {
+        if (copies != null) {
+            int start = copies.textStarts[index];
+            return copies.text.substring(start, start + length(index));
+        }
+        if (source == null) {
+            throw new IllegalStateException("Token text is not available without a source");
+        }
+        return source.text(start(index), length(index));
+    }
+}
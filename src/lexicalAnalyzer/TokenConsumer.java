@@ -0,0 +1,10 @@
+package lexicalAnalyzer;
+
+interface TokenConsumer {
+    // Called once per token. The stream is positioned on the token, so text()
+    // is only materialized by consumers that need it.
+    void token(TokenStream tokens);
+
+    default void end() {
+    }
+}
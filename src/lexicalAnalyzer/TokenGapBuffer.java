@@ -0,0 +1,118 @@
+package lexicalAnalyzer;
+
+import java.util.*;
+
+// The tokens of an edited document, with a gap of free slots where it was
+// last re-lexed. Tokens before the gap hold their start and line. Tokens
+// behind it hold their distance from the end of the document and from its
+// last line instead, so moved() shifts all of them at once when an edit
+// changes the size of the text in front of them.
+final class TokenGapBuffer {
+    private static final int MIN_GAP = 16;
+
+    private byte[] types = new byte[MIN_GAP];
+    private int[] starts = new int[MIN_GAP];
+    private int[] lengths = new int[MIN_GAP];
+    private int[] lines = new int[MIN_GAP];
+    private int gapStart;
+    private int gapEnd = MIN_GAP;
+    // Where the tokens behind the gap are measured from.
+    private int end;
+    private int lastLine;
+
+    // For a document of length chars on lines 1 to lastLine.
+    TokenGapBuffer(int length, int lastLine) {
+        this.end = length;
+        this.lastLine = lastLine;
+    }
+
+    public int size() {
+        return types.length - (gapEnd - gapStart);
+    }
+
+    // Index of the first token behind the gap, which is size() when there is none.
+    int gap() {
+        return gapStart;
+    }
+
+    private int slot(int index) {
+        return index < gapStart ? index : index + gapEnd - gapStart;
+    }
+
+    public TokenType type(int index) {
+        return TokenType.of(types[slot(index)]);
+    }
+
+    public int start(int index) {
+        return index < gapStart ? starts[index] : end - starts[slot(index)];
+    }
+
+    public int length(int index) {
+        return lengths[slot(index)];
+    }
+
+    public int line(int index) {
+        return index < gapStart ? lines[index] : lastLine - lines[slot(index)];
+    }
+
+    // Adds a token in front of the gap.
+    void add(TokenType type, int start, int length, int line) {
+        if (gapStart == gapEnd) {
+            int capacity = types.length * 2;
+            int after = types.length - gapEnd;
+            types = grow(types, capacity, after);
+            starts = grow(starts, capacity, after);
+            lengths = grow(lengths, capacity, after);
+            lines = grow(lines, capacity, after);
+            gapEnd = capacity - after;
+        }
+        types[gapStart] = (byte) type.ordinal();
+        starts[gapStart] = start;
+        lengths[gapStart] = length;
+        lines[gapStart] = line;
+        gapStart++;
+    }
+
+    private static byte[] grow(byte[] array, int capacity, int after) {
+        byte[] grown = Arrays.copyOf(array, capacity);
+        System.arraycopy(array, array.length - after, grown, capacity - after, after);
+        return grown;
+    }
+
+    private static int[] grow(int[] array, int capacity, int after) {
+        int[] grown = Arrays.copyOf(array, capacity);
+        System.arraycopy(array, array.length - after, grown, capacity - after, after);
+        return grown;
+    }
+
+    // Drops the first token behind the gap.
+    void removeAfterGap() {
+        gapEnd++;
+    }
+
+    // Moves the gap in front of the token at index.
+    void moveGap(int index) {
+        while (gapStart > index) {
+            gapStart--;
+            gapEnd--;
+            types[gapEnd] = types[gapStart];
+            starts[gapEnd] = end - starts[gapStart];
+            lengths[gapEnd] = lengths[gapStart];
+            lines[gapEnd] = lastLine - lines[gapStart];
+        }
+        while (gapStart < index) {
+            types[gapStart] = types[gapEnd];
+            starts[gapStart] = end - starts[gapEnd];
+            lengths[gapStart] = lengths[gapEnd];
+            lines[gapStart] = lastLine - lines[gapEnd];
+            gapStart++;
+            gapEnd++;
+        }
+    }
+
+    // The text behind the gap moved by shift chars and lineShift lines.
+    void moved(int shift, int lineShift) {
+        end += shift;
+        lastLine += lineShift;
+    }
+}
@@ -0,0 +1,34 @@
+package lexicalAnalyzer;
+
+class TokenListing implements TokenConsumer {
+    private final TokenBuffer tokens = new TokenBuffer();
+    private final TokenSink sink;
+
+    public TokenListing() {
+        this(TokenSink.QUIET);
+    }
+
+    public TokenListing(TokenSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void token(TokenStream stream) {
+        if (stream.type() == TokenType.UNRECOGNIZED) return;
+
+        tokens.token(stream);
+    }
+
+    @Override
+    public void end() {
+        sink.beginTokens();
+        for (int i = 0; i < tokens.size(); i++) {
+            sink.token(tokens, i);
+        }
+        sink.endTokens(tokens.size());
+    }
+
+    public TokenBuffer tokens() {
+        return tokens;
+    }
+}
@@ -0,0 +1,77 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.util.*;
+
+// Where the reports go. Producers hand over records, never text: a row is a
+// buffer or table plus an index, so a sink only builds the strings it writes
+// and QUIET costs nothing. Each report arrives as begin, its rows, then end.
+interface TokenSink {
+    TokenSink QUIET = new TokenSink() {};
+
+    String UNRECOGNIZED_REASON = "Unrecognized token";
+
+    // What the sinks buffer before writing to their stream, unless told otherwise.
+    int BUFFER_SIZE = 1 << 16;
+
+    default void nfa(String name, int stateCount, int startState, BitSet finalStates) {}
+
+    // The moves of state on symbol go to targets[from] until targets[to].
+    default void transition(int state, char symbol, int[] targets, int from, int to) {}
+
+    default void endNfa() {}
+
+    default void dfa(int stateCount) {}
+
+    default void beginErrors() {}
+
+    default void error(TokenBuffer errors, int index) {}
+
+    default void endErrors(int count) {}
+
+    default void beginTokens() {}
+
+    default void token(TokenBuffer tokens, int index) {}
+
+    default void endTokens(int count) {}
+
+    default void beginSymbols() {}
+
+    default void symbol(SymbolTable table, int declaration) {}
+
+    default void endSymbols(int count) {}
+
+    default void duplicate(SymbolTable table, int declaration) {}
+
+    default void beginFiles() {}
+
+    default void file(BatchLexer.FileResult result) {}
+
+    default void endFiles(int count) {}
+
+    default void metrics(LexerMetrics metrics) {}
+
+    // Writes out anything still buffered; call once the last report has ended.
+    default void flush() {}
+
+    // text, jsonl, binary or none.
+    static TokenSink forFormat(String format, OutputStream out) {
+        return forFormat(format, out, BUFFER_SIZE);
+    }
+
+    // A small bufferSize suits an out that is already in memory.
+    static TokenSink forFormat(String format, OutputStream out, int bufferSize) {
+        switch (format) {
+            case "text":
+                return new TextSink(out, bufferSize);
+            case "jsonl":
+                return new JsonLinesSink(out, bufferSize);
+            case "binary":
+                return new BinarySink(out, bufferSize);
+            case "none":
+                return QUIET;
+            default:
+                throw new IllegalArgumentException("Unknown output format: " + format);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package lexicalAnalyzer;
+
+import java.io.*;
+
+interface TokenStream {
+    // Advances to the next token; the accessors below describe it until the next call.
+    boolean next() throws IOException;
+
+    TokenType type();
+
+    long start();
+
+    long end();
+
+    // Line and column are found from the token's offset only when asked for.
+    default int line() {
+        return line(start());
+    }
+
+    default int column() {
+        return column(start());
+    }
+
+    // Line and column, counted from 1, of a position no later than the current token.
+    int line(long position);
+
+    int column(long position);
+
+    default String text() {
+        return text(start(), (int) (end() - start()));
+    }
+
+    // Text of any token of this input that is still reachable, e.g. one kept in
+    // a TokenBuffer; streams that have already discarded it throw IllegalStateException.
+    String text(long start, int length);
+
+    // Whether text(), line() and column() keep working for every earlier token,
+    // as over a String or a file. A stream that drops its input as it goes says
+    // no, and consumers that keep tokens copy what they need in token().
+    default boolean retainsText() {
+        return true;
+    }
+
+    // One char of the current token, read without building its text.
+    default char charAt(long position) {
+        return text(position, 1).charAt(0);
+    }
+
+    // Lexes the whole input once and hands every token to each consumer in turn.
+    default void drainTo(TokenConsumer... consumers) throws IOException {
+        while (next()) {
+            for (TokenConsumer consumer : consumers) {
+                consumer.token(this);
+            }
+        }
+        for (TokenConsumer consumer : consumers) {
+            consumer.end();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package lexicalAnalyzer;
+
+enum TokenType {
+    // Declaration order is match priority: when two classes accept the same
+    // lexeme the earlier one wins, so Keyword beats Identifier.
+    KEYWORD("Keyword"),
+    NUMBER("Number"),
+    OPERATOR("Operator"),
+    PUNCTUATOR("Punctuator"),
+    IDENTIFIER("Identifier"),
+    // Skipped by the lexers.
+    COMMENT("Comment"),
+    UNRECOGNIZED("Unrecognized");
+
+    private static final TokenType[] VALUES = values();
+
+    private final String name;
+
+    TokenType(String name) {
+        this.name = name;
+    }
+
+    public static TokenType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static TokenType fromName(String name) {
+        for (TokenType type : values()) {
+            if (type.name.equals(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown token type: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,206 @@
+package lexicalAnalyzer;
+
+import java.util.*;
+
+// The DFA rebuilt over UTF-8 bytes, so MappedLexer can lex raw bytes without
+// decoding them. ASCII bytes move as the DFA does on that char. The DFA's move
+// on OTHER, which every char past ASCII takes, becomes a chain of states that
+// reads one whole code point: a lead byte, then the one to three continuation
+// bytes UTF-8 allows after it. Malformed bytes go the way a decoder's
+// replacement char would: a byte that cannot start a code point counts as one
+// char past ASCII, and so does the start of a code point cut short, after
+// which the next byte is lexed as usual. Tokens therefore come out as those
+// of the decoded text, except that a code point past the BMP counts as one
+// char rather than a surrogate pair, with byte offsets for positions.
+final class Utf8DFA implements Automaton {
+    // Kinds of byte past ASCII, each an alphabet class of its own.
+    private static final int CONTINUATION_80 = 0; // 80-8F
+    private static final int CONTINUATION_90 = 1; // 90-9F
+    private static final int CONTINUATION_A0 = 2; // A0-BF
+    private static final int INVALID = 3;         // C0-C1, F5-FF
+    private static final int LEAD_2 = 4;          // C2-DF
+    private static final int LEAD_E0 = 5;
+    private static final int LEAD_3 = 6;          // E1-EC, EE-EF
+    private static final int LEAD_ED = 7;
+    private static final int LEAD_F0 = 8;
+    private static final int LEAD_4 = 9;          // F1-F3
+    private static final int LEAD_F4 = 10;
+    private static final int KINDS = 11;
+
+    // Chains: the state after a lead byte, named by what is still to come.
+    private static final int NEED_1 = 0;
+    private static final int NEED_2 = 1;
+    private static final int NEED_3 = 2;
+    private static final int AFTER_E0 = 3;     // A0-BF, then one more
+    private static final int AFTER_ED = 4;     // 80-9F, then one more
+    private static final int AFTER_F0 = 5;     // 90-BF, then two more
+    private static final int AFTER_F4 = 6;     // 80-8F, then two more
+    private static final int CHAINS = 7;
+
+    private final int[] transitions;
+    private final TokenType[] accepting;
+    private final byte[] classes = new byte[256];
+    private final int classCount;
+    private final byte[] selfLoops;
+
+    Utf8DFA(DFA dfa) {
+        int asciiClasses = dfa.classCount();
+        classCount = asciiClasses + KINDS;
+        for (int b = 0; b < 256; b++) {
+            classes[b] = (byte) (b < DFA.OTHER ? dfa.classOf((char) b) : asciiClasses + kindOf(b));
+        }
+
+        // Chain states are numbered after the DFA's own, in the order the rows
+        // reach them; chainStates holds the kind and target of each.
+        int dfaStates = dfa.stateCount();
+        int[][] chains = new int[CHAINS][dfaStates];
+        for (int[] chain : chains) {
+            Arrays.fill(chain, -1);
+        }
+        List<int[]> chainStates = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        int base = asciiClasses;
+        for (int state = 0; state < dfaStates; state++) {
+            int[] row = new int[classCount];
+            Arrays.fill(row, -1);
+            for (char c = 0; c < DFA.OTHER; c++) {
+                row[classes[c] & 0xFF] = dfa.next(state, c);
+            }
+            int target = dfa.next(state, DFA.OTHER);
+            if (target >= 0) {
+                row[base + CONTINUATION_80] = target;
+                row[base + CONTINUATION_90] = target;
+                row[base + CONTINUATION_A0] = target;
+                row[base + INVALID] = target;
+                row[base + LEAD_2] = chain(chains, NEED_1, target, chainStates);
+                row[base + LEAD_E0] = chain(chains, AFTER_E0, target, chainStates);
+                row[base + LEAD_3] = chain(chains, NEED_2, target, chainStates);
+                row[base + LEAD_ED] = chain(chains, AFTER_ED, target, chainStates);
+                row[base + LEAD_F0] = chain(chains, AFTER_F0, target, chainStates);
+                row[base + LEAD_4] = chain(chains, NEED_3, target, chainStates);
+                row[base + LEAD_F4] = chain(chains, AFTER_F4, target, chainStates);
+            }
+            rows.add(row);
+        }
+
+        // A chain state moves as its target does, so a byte that breaks the code
+        // point is lexed from there, except on the bytes that carry it on.
+        for (int[] chainState : chainStates) {
+            int target = chainState[1];
+            int[] row = rows.get(target).clone();
+            switch (chainState[0]) {
+                case NEED_1:
+                    continueOn(row, base, target, CONTINUATION_80, CONTINUATION_90, CONTINUATION_A0);
+                    break;
+                case NEED_2:
+                    continueOn(row, base, chains[NEED_1][target], CONTINUATION_80, CONTINUATION_90, CONTINUATION_A0);
+                    break;
+                case NEED_3:
+                    continueOn(row, base, chains[NEED_2][target], CONTINUATION_80, CONTINUATION_90, CONTINUATION_A0);
+                    break;
+                case AFTER_E0:
+                    continueOn(row, base, chains[NEED_1][target], CONTINUATION_A0);
+                    break;
+                case AFTER_ED:
+                    continueOn(row, base, chains[NEED_1][target], CONTINUATION_80, CONTINUATION_90);
+                    break;
+                case AFTER_F0:
+                    continueOn(row, base, chains[NEED_2][target], CONTINUATION_90, CONTINUATION_A0);
+                    break;
+                default:
+                    continueOn(row, base, chains[NEED_2][target], CONTINUATION_80);
+            }
+            rows.add(row);
+        }
+
+        int stateCount = rows.size();
+        transitions = new int[stateCount * classCount];
+        accepting = new TokenType[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            System.arraycopy(rows.get(state), 0, transitions, state * classCount, classCount);
+            // A chain state accepts what its target does: input that ends
+            // inside a code point ends as if that were one char, as a decoder's
+            // replacement char is.
+            accepting[state] = dfa.accepting(state < dfaStates ? state : chainStates.get(state - dfaStates)[1]);
+        }
+        // A DFA state that loops on OTHER moves to one of its own chains on any
+        // byte past ASCII, and those chains move just as it does, so its runs of
+        // "every char but" may take in any bytes at all. Chains are never skipped.
+        selfLoops = new byte[stateCount];
+        for (int state = 0; state < dfaStates; state++) {
+            selfLoops[state] = (byte) dfa.selfLoops(state);
+        }
+    }
+
+    // The chain of kind towards target, created along with the shorter chains
+    // its row moves to.
+    private static int chain(int[][] chains, int kind, int target, List<int[]> chainStates) {
+        if (chains[kind][target] < 0) {
+            chains[kind][target] = chains[0].length + chainStates.size();
+            chainStates.add(new int[] {kind, target});
+            if (kind != NEED_1) {
+                chain(chains, NEED_1, target, chainStates);
+            }
+            if (kind == NEED_3 || kind == AFTER_F0 || kind == AFTER_F4) {
+                chain(chains, NEED_2, target, chainStates);
+            }
+        }
+        return chains[kind][target];
+    }
+
+    private static void continueOn(int[] row, int base, int next, int... kinds) {
+        for (int kind : kinds) {
+            row[base + kind] = next;
+        }
+    }
+
+    private static int kindOf(int b) {
+        if (b < 0x90) {
+            return CONTINUATION_80;
+        } else if (b < 0xA0) {
+            return CONTINUATION_90;
+        } else if (b < 0xC0) {
+            return CONTINUATION_A0;
+        } else if (b < 0xC2 || b > 0xF4) {
+            return INVALID;
+        } else if (b < 0xE0) {
+            return LEAD_2;
+        } else if (b == 0xE0) {
+            return LEAD_E0;
+        } else if (b == 0xED) {
+            return LEAD_ED;
+        } else if (b < 0xF0) {
+            return LEAD_3;
+        } else if (b == 0xF0) {
+            return LEAD_F0;
+        } else if (b < 0xF4) {
+            return LEAD_4;
+        }
+        return LEAD_F4;
+    }
+
+    @Override
+    public int startState() {
+        return 0;
+    }
+
+    public int stateCount() {
+        return accepting.length;
+    }
+
+    // c is a byte, 0 to 255.
+    @Override
+    public int next(int state, char c) {
+        return transitions[state * classCount + (classes[c] & 0xFF)];
+    }
+
+    @Override
+    public TokenType accepting(int state) {
+        return accepting[state];
+    }
+
+    @Override
+    public int selfLoops(int state) {
+        return selfLoops[state];
+    }
+}
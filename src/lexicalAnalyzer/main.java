@@ -1,56 +1,210 @@
-package lexicalAnalyzer;
-
-import java.io.*;
-import java.util.*;
-
-public class main {
-    public static void main(String[] args) {
-        List<NFA> nfas = new ArrayList<>();
-        Map<String, String> regexMap = new HashMap<>();
-        Map<String, NFA> nfaMap = new HashMap<>();
-
-        regexMap.put("Identifier", RE.IDENTIFIER_REGEX);
-        regexMap.put("Number", RE.NUMBER_REGEX);
-        regexMap.put("Keyword", RE.KEYWORD_REGEX);
-        regexMap.put("Operator", RE.OPERATOR_REGEX);
-        regexMap.put("Punctuator", RE.PUNCTUATOR_REGEX);
-
-        for (Map.Entry<String, String> entry : regexMap.entrySet()) {
-            NFA nfa = new NFA();
-            nfa.buildNFAFromRegex(entry.getKey(), entry.getValue());
-            nfas.add(nfa);
-            nfaMap.put(entry.getKey(), nfa);
-        }
-
-        NFA combinedNFA = NFA.mergeNFAs(nfas);
-        if (combinedNFA == null) {
-            System.err.println("Error: Combined NFA is null.");
-            return;
-        }
-      
-        combinedNFA.printNFA("Combined");
-        combinedNFA.convertNFAtoDFA();
-        String code = readCodeFromFile("code.txt");
-        if (code.isEmpty()) {
-            System.err.println("Error: Code file is empty or not found.");
-            return;
-        }
-        combinedNFA.detectLexemeErrors(code, nfaMap);
-        combinedNFA.tokenizeCode(code, nfaMap);
-        combinedNFA.createSymbolTable(code, nfaMap);
-    }
-
-    private static String readCodeFromFile(String filename) {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading file: " + filename);
-            e.printStackTrace();
-        }
-        return sb.toString().trim();
-    }
+package lexicalAnalyzer;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.*;
+
+public class main {
+    private static final Path TABLE_FILE = Paths.get("lexer.tables");
+
+    // Run with --build-tables to only compile the lexer and write TABLE_FILE, which
+    // later runs load instead of compiling the lexer again as long as it was built
+    // for the same patterns and token types; nothing else writes it. Or run
+    // with --generate-scanner <dir> to write GeneratedScanner.java into dir, or
+    // with --batch <path> to lex every file under path instead of code.txt, or
+    // with --serve <port|socket path> to stay resident answering LexerServer requests.
+    // --format text|jsonl|binary|none picks how the reports are written, and
+    // --metrics adds counts, phase times and histograms of the run to them.
+    // --lazy lexes code.txt with a LazyDFA built from the NFA as it goes,
+    // skipping the table file and the subset construction. --parallel lexes
+    // code.txt on every core instead, through a ParallelLexer; it does not mix
+    // with --lazy, and it leaves state visits out of --metrics.
+    public static void main(String[] args) {
+        String format = "text";
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--format")) {
+                format = args[i + 1];
+            }
+        }
+        TokenSink sink;
+        try {
+            sink = TokenSink.forFormat(format, System.out);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+        try {
+            run(args, sink);
+        } finally {
+            sink.flush();
+        }
+    }
+
+    private static void run(String[] args, TokenSink sink) {
+        Map<String, String> regexMap = new HashMap<>();
+
+        regexMap.put("Identifier", RE.IDENTIFIER_REGEX);
+        regexMap.put("Number", RE.NUMBER_REGEX);
+        regexMap.put("Keyword", RE.KEYWORD_REGEX);
+        regexMap.put("Operator", RE.OPERATOR_REGEX);
+        regexMap.put("Punctuator", RE.PUNCTUATOR_REGEX);
+        regexMap.put("Comment", RE.COMMENT_REGEX);
+        regexMap.put("Unrecognized", RE.UNRECOGNIZED_REGEX);
+
+        boolean buildOnly = args.length > 0 && args[0].equals("--build-tables");
+        boolean generate = args.length > 1 && args[0].equals("--generate-scanner");
+        boolean batch = args.length > 1 && args[0].equals("--batch");
+        boolean serve = args.length > 1 && args[0].equals("--serve");
+        boolean reportMetrics = Arrays.asList(args).contains("--metrics");
+        boolean lazy = Arrays.asList(args).contains("--lazy") && !buildOnly && !generate && !batch && !serve;
+        boolean parallel = Arrays.asList(args).contains("--parallel") && !lazy;
+        int fingerprint = CompiledLexer.fingerprint(regexMap);
+        LexerMetrics metrics = new LexerMetrics();
+
+        LexerEvents.AutomatonBuild build = new LexerEvents.AutomatonBuild();
+        build.begin();
+        long started = System.nanoTime();
+        CompiledLexer lexer = null;
+        LazyDFA lazyDFA = null;
+        if (lazy) {
+            lazyDFA = CompiledLexer.combine(regexMap, sink).lazyDFA(LazyDFA.DEFAULT_CAPACITY);
+        } else if (!buildOnly) {
+            try {
+                lexer = CompiledLexer.load(TABLE_FILE, fingerprint);
+            } catch (IOException e) {
+                System.err.println("Warning: ignoring lexer tables: " + e.getMessage());
+            }
+        }
+        build.loaded = lexer != null;
+        if (lexer == null && !lazy) {
+            lexer = CompiledLexer.compile(regexMap, sink);
+        }
+        if (buildOnly) {
+            try {
+                lexer.save(TABLE_FILE, fingerprint);
+            } catch (IOException e) {
+                System.err.println("Error: could not save lexer tables: " + e.getMessage());
+            }
+        }
+        metrics.record(LexerMetrics.Phase.CONSTRUCTION, System.nanoTime() - started);
+        if (build.shouldCommit() && lexer != null) {
+            build.dfaStates = lexer.dfa().stateCount();
+            build.alphabetClasses = lexer.dfa().classCount();
+            build.commit();
+        }
+        if (buildOnly) {
+            return;
+        }
+        if (generate) {
+            try {
+                Path file = ScannerGenerator.write(lexer.dfa(), "GeneratedScanner", Paths.get(args[1]));
+                sink.flush();
+                System.out.println("Generated scanner: " + file);
+            } catch (IOException e) {
+                System.err.println("Error writing generated scanner: " + e.getMessage());
+            }
+            return;
+        }
+        if (serve) {
+            serve(lexer, args[1]);
+            return;
+        }
+        if (batch) {
+            lexBatch(lexer, Paths.get(args[1]), sink, metrics);
+            if (reportMetrics) {
+                sink.metrics(metrics);
+            }
+            return;
+        }
+
+        Path codeFile = Paths.get("code.txt");
+        try {
+            if (!Files.isRegularFile(codeFile) || Files.size(codeFile) == 0) {
+                System.err.println("Error: Code file is empty or not found.");
+                return;
+            }
+            // One pass over the mapped file feeds errors, tokens and symbols together.
+            // State visits are only counted when asked for, since that slows every char,
+            // and never in parallel, since a LexerMetrics belongs to one thread.
+            // The file is lexed as UTF-8 bytes; the lazy DFA sees bytes past ASCII as OTHER.
+            Automaton dfa = lazy ? lazyDFA : lexer.utf8();
+            Automaton automaton = reportMetrics && !parallel ? metrics.meter(dfa) : dfa;
+            TokenConsumer[] consumers = {
+                new LexemeErrorCollector(sink), new TokenListing(sink), new SymbolTableBuilder(sink), metrics
+            };
+            LexerEvents.Lex event = new LexerEvents.Lex();
+            event.begin();
+            metrics.addBytes(Files.size(codeFile));
+            started = System.nanoTime();
+            if (parallel) {
+                new ParallelLexer(automaton, ForkJoinPool.commonPool()).drainTo(codeFile, consumers);
+                metrics.record(LexerMetrics.Phase.SCAN, System.nanoTime() - started);
+            } else {
+                try (MappedLexer mapped = new MappedLexer(automaton, codeFile)) {
+                    metrics.record(LexerMetrics.Phase.READ, System.nanoTime() - started);
+                    started = System.nanoTime();
+                    mapped.drainTo(consumers);
+                    metrics.record(LexerMetrics.Phase.SCAN, System.nanoTime() - started);
+                }
+            }
+            if (event.shouldCommit()) {
+                event.set(codeFile.toString(), metrics);
+                event.commit();
+            }
+            if (reportMetrics) {
+                sink.metrics(metrics);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + codeFile);
+            e.printStackTrace();
+        }
+    }
+
+    // Blocks until the process is stopped. The shutdown hook interrupts this
+    // thread, which ends serve(), and waits while the try closes the server and
+    // removes its socket file.
+    private static void serve(CompiledLexer lexer, String endpoint) {
+        Thread serving = Thread.currentThread();
+        try (LexerServer server = LexerServer.open(lexer, endpoint)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                serving.interrupt();
+                try {
+                    serving.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            System.err.println("Serving on " + server.address());
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Error serving on " + endpoint + ": " + e.getMessage());
+        }
+    }
+
+    // --batch <path> lexes every regular file under path in one JVM.
+    private static void lexBatch(CompiledLexer lexer, Path root, TokenSink sink, LexerMetrics metrics) {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            System.err.println("Error listing files under: " + root);
+            e.printStackTrace();
+            return;
+        }
+
+        try (BatchLexer batchLexer = new BatchLexer(lexer)) {
+            List<BatchLexer.FileResult> results = batchLexer.lex(files);
+            sink.beginFiles();
+            for (BatchLexer.FileResult result : results) {
+                sink.file(result);
+                metrics.merge(result.metrics);
+            }
+            sink.endFiles(results.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Error: batch lexing was interrupted");
+        }
+    }
 }
\ No newline at end of file
@@ -1,8 +1,9 @@
-/**
- * 
- */
-/**
- * 
- */
-module assignment01 {
+/**
+ * 
+ */
+/**
+ * 
+ */
+module assignment01 {
+    requires jdk.jfr;
 }
\ No newline at end of file